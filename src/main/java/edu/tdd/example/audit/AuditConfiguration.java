@@ -0,0 +1,44 @@
+package edu.tdd.example.audit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Clock;
+
+@Configuration
+@ConditionalOnProperty("products.audit.enabled")
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfiguration implements DisposableBean {
+
+    private AuditLogWriter auditLogWriter;
+
+    @Bean
+    public ProductAuditLog productAuditLog(AuditProperties properties) throws IOException {
+        if(!StringUtils.hasText(properties.getFile())) {
+            throw new IllegalStateException("products.audit.file must be set when products.audit.enabled is true");
+        }
+        ProductAuditLog auditLog = new ProductAuditLog(new AuditRingBuffer<>(properties.getCapacity()),
+                properties.getActorHeader(), Clock.systemUTC());
+        auditLogWriter = new AuditLogWriter(auditLog, Paths.get(properties.getFile()),
+                properties.getBatchSize(), properties.getFlushInterval());
+        return auditLog;
+    }
+
+    @Bean
+    public ProductAuditMetrics productAuditMetrics(ProductAuditLog productAuditLog) {
+        return new ProductAuditMetrics(productAuditLog);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        if(auditLogWriter != null) {
+            auditLogWriter.close();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package edu.tdd.example.audit;
+
+import edu.tdd.example.events.ProductChangedEvent;
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * One line of the product audit log
+ */
+@Value
+public class AuditEvent {
+
+    ProductChangedEvent.Type type;
+
+    Integer productId;
+
+    /**
+     * Version before the change, null when created
+     */
+    Integer oldVersion;
+
+    /**
+     * Version after the change, null when deleted
+     */
+    Integer newVersion;
+
+    Instant timestamp;
+
+    /**
+     * Who made the change, null when it did not come from a request naming its actor
+     */
+    String actor;
+}
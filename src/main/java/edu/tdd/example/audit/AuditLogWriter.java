@@ -0,0 +1,130 @@
+package edu.tdd.example.audit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Appends the queued audit events to a file, one JSON object per line, on its own thread.
+ *
+ * Events are taken in batches and written through one generator per batch, which hands its
+ * buffer to the file without flushing it; the file is flushed once per batch, so a burst of
+ * changes costs one write instead of one per change. Events still queued on close are written before
+ * the file is closed.
+ */
+@Slf4j
+public class AuditLogWriter implements Closeable {
+
+    private final ProductAuditLog auditLog;
+
+    private final int batchSize;
+
+    private final long idleNanos;
+
+    private final Writer writer;
+
+    /**
+     * Generators neither flush nor close the file, and separate the events by the newlines written after them
+     */
+    private final JsonFactory jsonFactory = new JsonFactory()
+            .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .setRootValueSeparator(null);
+
+    private final Thread thread;
+
+    private volatile boolean running = true;
+
+    private long reportedDropped;
+
+    public AuditLogWriter(ProductAuditLog auditLog, Path file, int batchSize, Duration flushInterval) throws IOException {
+        this.auditLog = auditLog;
+        this.batchSize = batchSize;
+        this.idleNanos = flushInterval.toNanos();
+        Path directory = file.toAbsolutePath().getParent();
+        if(directory != null) {
+            Files.createDirectories(directory);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        this.thread = new Thread(this::run, "product-audit-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while(true) {
+            auditLog.drain(batch::add, batchSize);
+            if(!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            } else if(running) {
+                LockSupport.parkNanos(this, idleNanos);
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void write(List<AuditEvent> batch) {
+        try {
+            try(JsonGenerator json = jsonFactory.createGenerator(writer)) {
+                for(AuditEvent event : batch) {
+                    json.writeStartObject();
+                    json.writeStringField("type", event.getType().name());
+                    writeNumberField(json, "productId", event.getProductId());
+                    writeNumberField(json, "oldVersion", event.getOldVersion());
+                    writeNumberField(json, "newVersion", event.getNewVersion());
+                    json.writeStringField("timestamp", event.getTimestamp().toString());
+                    if(event.getActor() != null) {
+                        json.writeStringField("actor", event.getActor());
+                    }
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            log.error("Could not write {} audit events", batch.size(), e);
+        }
+        long dropped = auditLog.getDropped();
+        if(dropped > reportedDropped) {
+            log.warn("{} audit events dropped as the audit buffer was full", dropped - reportedDropped);
+            reportedDropped = dropped;
+        }
+    }
+
+    private static void writeNumberField(JsonGenerator json, String name, Integer value) throws IOException {
+        if(value != null) {
+            json.writeNumberField(name, value);
+        } else {
+            json.writeNullField(name);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.close();
+    }
+}
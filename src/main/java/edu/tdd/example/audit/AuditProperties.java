@@ -0,0 +1,42 @@
+package edu.tdd.example.audit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("products.audit")
+public class AuditProperties {
+
+    /**
+     * Whether product changes are written to the audit log, enabled by the application properties
+     */
+    private boolean enabled;
+
+    /**
+     * File the audit log is appended to, one JSON object per line. Must be set when the audit log is enabled
+     */
+    private String file;
+
+    /**
+     * Events held between the request threads and the writer, a power of two.
+     * Events arriving while it is full are dropped and counted in products.audit.dropped rather than blocking the request
+     */
+    private int capacity = 8192;
+
+    /**
+     * Most events written with one flush of the file
+     */
+    private int batchSize = 512;
+
+    /**
+     * How long the writer sleeps when there is nothing to write
+     */
+    private Duration flushInterval = Duration.ofMillis(50);
+
+    /**
+     * Request header naming who made the change
+     */
+    private String actorHeader = "X-Actor";
+}
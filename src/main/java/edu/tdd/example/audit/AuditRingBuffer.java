@@ -0,0 +1,100 @@
+package edu.tdd.example.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * Each slot carries a sequence number telling whose turn it is: producers claim a slot by
+ * moving the tail with a compare-and-set and publish the element by advancing the slot's
+ * sequence, the consumer takes published elements in order and hands the slot back to the
+ * producers one lap later. Producers never wait, a full buffer rejects the element.
+ */
+public class AuditRingBuffer<E> {
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<E> slots;
+
+    private final AtomicLongArray sequences;
+
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Only read and written by the consumer
+     */
+    private long head;
+
+    public AuditRingBuffer(int capacity) {
+        if(capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two, was " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for(int slot = 0; slot < capacity; slot++) {
+            sequences.set(slot, slot);
+        }
+    }
+
+    /**
+     * Adds an element, safe to call from any thread
+     * @param element to add
+     * @return false if the buffer is full
+     */
+    public boolean offer(E element) {
+        long position = tail.get();
+        while(true) {
+            int slot = (int) (position & mask);
+            long turn = sequences.get(slot) - position;
+            if(turn == 0) {
+                if(tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(slot, element);
+                    sequences.lazySet(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if(turn < 0) {
+                // the consumer has not taken the element written here one lap ago
+                return false;
+            } else {
+                // another producer claimed this position first
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes up to max elements in the order they were added, only called by the consumer thread
+     * @param consumer of the elements
+     * @param max elements to take
+     * @return number of elements taken
+     */
+    public int drain(Consumer<? super E> consumer, int max) {
+        int taken = 0;
+        while(taken < max) {
+            int slot = (int) (head & mask);
+            if(sequences.get(slot) != head + 1) {
+                // empty, or the producer that claimed this slot has not published yet
+                break;
+            }
+            E element = slots.get(slot);
+            slots.lazySet(slot, null);
+            sequences.lazySet(slot, head + capacity);
+            head++;
+            taken++;
+            consumer.accept(element);
+        }
+        return taken;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
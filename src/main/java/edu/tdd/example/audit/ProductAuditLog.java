@@ -0,0 +1,71 @@
+package edu.tdd.example.audit;
+
+import edu.tdd.example.events.ProductChangedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Queues an audit event for each committed product change.
+ *
+ * Runs on the thread that made the change, so it only captures the event in the ring buffer
+ * and leaves serialising and writing to the {@link AuditLogWriter}.
+ */
+public class ProductAuditLog {
+
+    private final AuditRingBuffer<AuditEvent> buffer;
+
+    private final String actorHeader;
+
+    private final Clock clock;
+
+    private final LongAdder dropped = new LongAdder();
+
+    public ProductAuditLog(AuditRingBuffer<AuditEvent> buffer, String actorHeader, Clock clock) {
+        this.buffer = buffer;
+        this.actorHeader = actorHeader;
+        this.clock = clock;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        Integer oldVersion = event.getBefore() != null ? event.getBefore().getVersion() : null;
+        Integer newVersion = event.getAfter() != null ? event.getAfter().getVersion() : null;
+        AuditEvent auditEvent = new AuditEvent(event.getType(), event.getProductId(), oldVersion, newVersion,
+                clock.instant(), currentActor());
+        if(!buffer.offer(auditEvent)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Takes queued events, only called by the writer thread
+     * @param consumer of the events
+     * @param max events to take
+     * @return number of events taken
+     */
+    public int drain(Consumer<AuditEvent> consumer, int max) {
+        return buffer.drain(consumer, max);
+    }
+
+    /**
+     * @return events dropped so far because the buffer was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private String currentActor() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if(attributes instanceof ServletRequestAttributes) {
+            return ((ServletRequestAttributes) attributes).getRequest().getHeader(actorHeader);
+        }
+        // scheduled work such as flushing committed reservations
+        return null;
+    }
+}
@@ -0,0 +1,24 @@
+package edu.tdd.example.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Publishes the audit events dropped because the ring buffer was full, which are missing from the audit file
+ */
+public class ProductAuditMetrics implements MeterBinder {
+
+    private final ProductAuditLog auditLog;
+
+    public ProductAuditMetrics(ProductAuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("products.audit.dropped", auditLog, ProductAuditLog::getDropped)
+                .description("Audit events dropped as the audit buffer was full")
+                .register(registry);
+    }
+}
@@ -0,0 +1,74 @@
+package edu.tdd.example.bulkhead;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of concurrent calls of one class of operations.
+ *
+ * Each call holds a permit for as long as it holds a servlet thread and a pooled
+ * connection, so a partition can never take more of either than its permits allow.
+ * Calls that cannot get a permit within the configured wait are rejected with
+ * {@link BulkheadFullException} instead of queueing behind the slow ones.
+ */
+public class Bulkhead {
+
+    @Getter
+    private final String name;
+
+    private final Semaphore permits;
+
+    private final long maxWaitNanos;
+
+    public Bulkhead(String name, int maxConcurrentCalls, Duration maxWait) {
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrentCalls, true);
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /**
+     * Runs the call inside this bulkhead
+     * @param call to run
+     * @return result of the call
+     * @throws BulkheadFullException if no permit became available in time
+     */
+    public <T> T execute(Supplier<T> call) {
+        acquire();
+        try {
+            return call.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Runs the call inside this bulkhead
+     * @param call to run
+     * @throws BulkheadFullException if no permit became available in time
+     */
+    public void run(Runnable call) {
+        execute(() -> {
+            call.run();
+            return null;
+        });
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    private void acquire() {
+        try {
+            if(!permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                throw new BulkheadFullException(name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException(name);
+        }
+    }
+}
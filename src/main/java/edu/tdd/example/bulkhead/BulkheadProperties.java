@@ -0,0 +1,35 @@
+package edu.tdd.example.bulkhead;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Sizes of the product bulkheads.
+ *
+ * Keep the sum of all max-concurrent-calls at or below the connection pool size,
+ * so point reads always find a free connection however busy scans and writes are.
+ */
+@Data
+@ConfigurationProperties("products.bulkhead")
+public class BulkheadProperties {
+
+    private Partition pointReads = new Partition(6, Duration.ofSeconds(1));
+
+    private Partition scans = new Partition(2, Duration.ofMillis(100));
+
+    private Partition writes = new Partition(2, Duration.ofSeconds(1));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Partition {
+
+        private int maxConcurrentCalls;
+
+        private Duration maxWait;
+    }
+}
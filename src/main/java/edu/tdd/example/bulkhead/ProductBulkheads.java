@@ -0,0 +1,30 @@
+package edu.tdd.example.bulkhead;
+
+import lombok.Getter;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bulkheads isolating product point reads, list scans and writes from each other.
+ */
+@Getter
+@Component
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class ProductBulkheads {
+
+    private final Bulkhead pointReads;
+
+    private final Bulkhead scans;
+
+    private final Bulkhead writes;
+
+    public ProductBulkheads(BulkheadProperties properties) {
+        this.pointReads = create("point-reads", properties.getPointReads());
+        this.scans = create("scans", properties.getScans());
+        this.writes = create("writes", properties.getWrites());
+    }
+
+    private static Bulkhead create(String name, BulkheadProperties.Partition partition) {
+        return new Bulkhead(name, partition.getMaxConcurrentCalls(), partition.getMaxWait());
+    }
+}
@@ -0,0 +1,49 @@
+package edu.tdd.example.config;
+
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Tunes Tomcat for gateways sending many requests over few long-lived connections
+ * when the http2 profile is active.
+ *
+ * HTTP/2 is served as h2c on the plain connector, by upgrade or with prior knowledge,
+ * and over TLS with ALPN when server.ssl is configured.
+ */
+@Profile("http2")
+@Configuration
+@EnableConfigurationProperties(ServerTuningProperties.class)
+public class Http2ServerConfiguration {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> http2ConnectorCustomizer(ServerTuningProperties properties) {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            if(connector.getProtocolHandler() instanceof AbstractHttp11Protocol) {
+                AbstractHttp11Protocol<?> http11 = (AbstractHttp11Protocol<?>) connector.getProtocolHandler();
+                http11.setKeepAliveTimeout((int) properties.getKeepAliveTimeout().toMillis());
+                http11.setMaxKeepAliveRequests(properties.getMaxKeepAliveRequests());
+            }
+
+            Http2Protocol http2 = null;
+            for(UpgradeProtocol upgradeProtocol : connector.findUpgradeProtocols()) {
+                if(upgradeProtocol instanceof Http2Protocol) {
+                    http2 = (Http2Protocol) upgradeProtocol;
+                }
+            }
+            if(http2 == null) {
+                http2 = new Http2Protocol();
+                connector.addUpgradeProtocol(http2);
+            }
+            http2.setMaxConcurrentStreams(properties.getHttp2().getMaxConcurrentStreams());
+            http2.setMaxConcurrentStreamExecution(properties.getHttp2().getMaxConcurrentStreamExecution());
+            http2.setKeepAliveTimeout(properties.getHttp2().getKeepAliveTimeout().toMillis());
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package edu.tdd.example.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfiguration {
+
+    /**
+     * Generates bytecode accessors for product (de)serialisation instead of calling getters
+     * and setters reflectively. Spring Boot registers every Module bean with its ObjectMapper.
+     */
+    @Bean
+    public Module afterburnerModule() {
+        return new AfterburnerModule();
+    }
+}
@@ -0,0 +1,46 @@
+package edu.tdd.example.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Connection settings Spring Boot has no server.tomcat property for.
+ */
+@Data
+@ConfigurationProperties("products.server")
+public class ServerTuningProperties {
+
+    /**
+     * How long an idle HTTP/1.1 connection is kept open for its next request
+     */
+    private Duration keepAliveTimeout = Duration.ofSeconds(60);
+
+    /**
+     * Requests served over one HTTP/1.1 connection before it is closed, pipelined ones included.
+     * -1 for no limit
+     */
+    private int maxKeepAliveRequests = 1000;
+
+    private Http2 http2 = new Http2();
+
+    @Data
+    public static class Http2 {
+
+        /**
+         * Streams a client may open at once on one connection
+         */
+        private long maxConcurrentStreams = 256;
+
+        /**
+         * Streams of one connection processed at once, the others wait for a thread
+         */
+        private int maxConcurrentStreamExecution = 64;
+
+        /**
+         * How long an idle HTTP/2 connection is kept open
+         */
+        private Duration keepAliveTimeout = Duration.ofSeconds(60);
+    }
+}
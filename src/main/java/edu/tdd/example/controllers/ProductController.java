@@ -1,23 +1,36 @@
 package edu.tdd.example.controllers;
 
 import edu.tdd.example.domain.Product;
+import edu.tdd.example.domain.ProductStats;
+import edu.tdd.example.hotproducts.HotProducts;
+import edu.tdd.example.hotproducts.PinnedProduct;
+import edu.tdd.example.idempotency.IdempotencyStore;
 import edu.tdd.example.services.ProductService;
+import edu.tdd.example.services.ProductStatsService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.net.URI;
-import java.net.URISyntaxException;
-
 @Slf4j
 @RestController
 @AllArgsConstructor
 public class ProductController {
 
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
     private ProductService productService;
 
+    private ProductStatsService productStatsService;
+
+    private ProductResponseHeaders productResponseHeaders;
+
+    private IdempotencyStore idempotencyStore;
+
+    private HotProducts hotProducts;
+
     /**
      * Gets all the products in repository
      * @return Iterable list of all products
@@ -28,7 +41,16 @@ public class ProductController {
     }
 
     /**
-     * Gets the product with specified ID
+     * Gets stock statistics over all products
+     * @return total stock, low stock counts and quantity distribution
+     */
+    @GetMapping("/products/stats")
+    public ProductStats getProductStats() {
+        return productStatsService.getStats();
+    }
+
+    /**
+     * Gets the product with specified ID, from memory and serialised in advance if it is among the most read ones
      * @param id ID of the product to get
      * @return ResponseEntity with the found product
      *          or NOT_FOUND if no product found
@@ -36,18 +58,20 @@ public class ProductController {
     @GetMapping("/products/{id}")
     public ResponseEntity<?> getProduct(@PathVariable Integer id) {
 
+        hotProducts.record(id);
+        PinnedProduct pinnedProduct = hotProducts.getPinned(id);
+        if(pinnedProduct != null) {
+            // serialised when pinned, written as is
+            return ResponseEntity.ok()
+                    .headers(productResponseHeaders.forProduct(id))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(pinnedProduct.getJson());
+        }
+
         Product product = productService.findById(id);
 
         if(product != null) {
-            try {
-                return ResponseEntity
-                           .ok()
-                           .eTag(Integer.toString(id))
-                           .location(new URI("/products/"+id))
-                           .body(product);
-            } catch (URISyntaxException e){
-                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-            }
+            return new ResponseEntity<>(product, productResponseHeaders.forProduct(id), HttpStatus.OK);
         } else {
             return ResponseEntity.notFound().build();
         }
@@ -56,22 +80,31 @@ public class ProductController {
     /**
      * Saves a new Product
      * @param product to save
-     * @return ResponseEntity with the saved product
+     * @param idempotencyKey optional key making retries of this request safe
+     * @return ResponseEntity with the saved product,
+     *          the stored response if the key was already used
+     *          or UNPROCESSABLE_ENTITY if the key was used for a different product
      */
     @PostMapping("/products")
-    public ResponseEntity<?> saveProduct(@RequestBody Product product) {
+    public ResponseEntity<?> saveProduct(@RequestBody Product product,
+                                         @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         log.debug("adding new product with name : {}",product.getName());
 
-        Product createdProduct = productService.save(product);
+        // versions are assigned by the service, never taken from the client
+        product.setVersion(null);
 
-        try {
-            return ResponseEntity
-                    .created(new URI("/products/"+createdProduct.getId()))
-                    .eTag(Integer.toString(createdProduct.getId()))
-                    .body(createdProduct);
-        } catch (URISyntaxException e){
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        if(idempotencyKey == null) {
+            return createProduct(product);
         }
+        Product request = product.copy();
+        return idempotencyStore.execute(idempotencyKey, request, () -> createProduct(product));
+    }
+
+    private ResponseEntity<?> createProduct(Product product) {
+        Product createdProduct = productService.save(product);
+
+        return new ResponseEntity<>(createdProduct,
+                productResponseHeaders.forProduct(createdProduct.getId()), HttpStatus.CREATED);
     }
 
     /**
@@ -86,7 +119,8 @@ public class ProductController {
                                            @RequestBody Product product,
                                            @RequestHeader("If-Match") Integer ifMatch) {
 
-        Product existingProduct = productService.findById(id);
+        // the precondition is checked against the primary, never a lagging replica
+        Product existingProduct = productService.findByIdOnPrimary(id);
 
         if(existingProduct != null) {
 
@@ -100,18 +134,10 @@ public class ProductController {
                 existingProduct.setDescription(product.getDescription());
                 existingProduct.setQuantity(product.getQuantity());
 
-                try {
-
-                    existingProduct = productService.save(existingProduct);
+                existingProduct = productService.save(existingProduct);
 
-                    return ResponseEntity
-                            .ok()
-                            .eTag(Integer.toString(existingProduct.getId()))
-                            .location(new URI("/products/"+existingProduct.getId()))
-                            .body(existingProduct);
-                } catch (URISyntaxException e){
-                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-                }
+                return new ResponseEntity<>(existingProduct,
+                        productResponseHeaders.forProduct(existingProduct.getId()), HttpStatus.OK);
             }
         } else {
             return ResponseEntity.notFound().build();
@@ -127,7 +153,7 @@ public class ProductController {
     public ResponseEntity<?> deleteProduct(@PathVariable Integer id) {
         log.debug("deleting product with id : {}",id);
 
-        Product existingProduct = productService.findById(id);
+        Product existingProduct = productService.findByIdOnPrimary(id);
 
         if(existingProduct != null){
             productService.delete(id);
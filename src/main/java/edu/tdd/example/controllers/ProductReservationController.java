@@ -0,0 +1,72 @@
+package edu.tdd.example.controllers;
+
+import edu.tdd.example.domain.Reservation;
+import edu.tdd.example.domain.ReservationRequest;
+import edu.tdd.example.reservations.ReservationService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@AllArgsConstructor
+public class ProductReservationController {
+
+    private ReservationService reservationService;
+
+    /**
+     * Holds stock of a product for a checkout
+     * @param id ID of the product to reserve
+     * @param request quantity to reserve
+     * @return ResponseEntity with the reservation,
+     *          NOT_FOUND if no product found
+     *          or CONFLICT if less stock is available
+     */
+    @PostMapping("/products/{id}/reservations")
+    public ResponseEntity<?> reserve(@PathVariable Integer id, @RequestBody ReservationRequest request) {
+        if(request.getQuantity() == null || request.getQuantity() <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.debug("reserving {} of product with id : {}", request.getQuantity(), id);
+
+        Reservation reservation = reservationService.reserve(id, request.getQuantity());
+
+        if(reservation != null) {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.LOCATION, "/products/" + id + "/reservations/" + reservation.getId());
+            return new ResponseEntity<>(reservation, headers, HttpStatus.CREATED);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Commits a reservation, taking its stock from the product with the next batched write
+     * @param id ID of the reserved product
+     * @param reservationId ID of the reservation
+     * @return ResponseEntity with the committed reservation,
+     *          NOT_FOUND if it expired, was already committed or released or the product was deleted
+     *          or CONFLICT if the product has less stock, e.g. sold by another instance
+     */
+    @PostMapping("/products/{id}/reservations/{reservationId}/commit")
+    public ResponseEntity<?> commit(@PathVariable Integer id, @PathVariable String reservationId) {
+        log.debug("committing reservation {} of product with id : {}", reservationId, id);
+        return ResponseEntity.ok(reservationService.commit(id, reservationId));
+    }
+
+    /**
+     * Releases a reservation, giving its stock back
+     * @param id ID of the reserved product
+     * @param reservationId ID of the reservation
+     * @return ResponseEntity with the http status
+     */
+    @DeleteMapping("/products/{id}/reservations/{reservationId}")
+    public ResponseEntity<?> release(@PathVariable Integer id, @PathVariable String reservationId) {
+        log.debug("releasing reservation {} of product with id : {}", reservationId, id);
+        reservationService.release(id, reservationId);
+        return ResponseEntity.ok().build();
+    }
+}
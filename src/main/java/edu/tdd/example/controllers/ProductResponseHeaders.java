@@ -0,0 +1,48 @@
+package edu.tdd.example.controllers;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * ETag and Location headers of product responses, built once per id.
+ *
+ * Headers of ids below the cache size are kept in a flat array indexed by id and shared,
+ * read-only, by all responses for that product; other ids get fresh headers.
+ */
+@Component
+public class ProductResponseHeaders {
+
+    private final AtomicReferenceArray<HttpHeaders> cache;
+
+    public ProductResponseHeaders(@Value("${products.http.header-cache-size:10000}") int cacheSize) {
+        this.cache = new AtomicReferenceArray<>(cacheSize);
+    }
+
+    /**
+     * Gets the headers of a product response
+     * @param id product id
+     * @return read-only headers with the product's ETag and Location
+     */
+    public HttpHeaders forProduct(int id) {
+        if(id < 0 || id >= cache.length()) {
+            return create(id);
+        }
+        HttpHeaders headers = cache.get(id);
+        if(headers == null) {
+            // racing threads build equal headers, whichever lands last is kept
+            headers = create(id);
+            cache.lazySet(id, headers);
+        }
+        return headers;
+    }
+
+    private static HttpHeaders create(int id) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag("\"" + id + "\"");
+        headers.set(HttpHeaders.LOCATION, "/products/" + id);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+}
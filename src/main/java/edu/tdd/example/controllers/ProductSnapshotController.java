@@ -0,0 +1,66 @@
+package edu.tdd.example.controllers;
+
+import edu.tdd.example.domain.ProductSnapshot;
+import edu.tdd.example.domain.ProductSnapshotPage;
+import edu.tdd.example.snapshots.ProductSnapshotService;
+import edu.tdd.example.snapshots.SnapshotsNotSupportedException;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@Slf4j
+@RestController
+@AllArgsConstructor
+public class ProductSnapshotController {
+
+    /**
+     * Missing when the products are not stored by the JPA repository
+     */
+    private ObjectProvider<ProductSnapshotService> productSnapshotService;
+
+    /**
+     * Takes a snapshot of the catalogue to page through
+     * @return ResponseEntity with the snapshot token
+     *          or NOT_IMPLEMENTED if no product history is recorded
+     */
+    @PostMapping("/products/snapshots")
+    public ResponseEntity<?> createSnapshot() {
+        ProductSnapshot snapshot = snapshotService().createSnapshot();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.LOCATION, "/products/snapshots/" + snapshot.getToken());
+        return new ResponseEntity<>(snapshot, headers, HttpStatus.CREATED);
+    }
+
+    /**
+     * Gets a page of the catalogue as of a snapshot
+     * @param token of the snapshot
+     * @param after id of the last product of the previous page, omitted for the first page
+     * @param size of the page, omitted for the default size
+     * @return ResponseEntity with the page
+     *          or NOT_FOUND if no snapshot was taken with the token
+     *          or NOT_IMPLEMENTED if no product history is recorded
+     */
+    @GetMapping("/products/snapshots/{token}")
+    public ResponseEntity<?> getSnapshotPage(@PathVariable Integer token,
+                                             @RequestParam(required = false) Integer after,
+                                             @RequestParam(required = false) Integer size) {
+        if(size != null && size <= 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        ProductSnapshotPage page = snapshotService().getPage(token, after, size);
+        return ResponseEntity.ok(page);
+    }
+
+    private ProductSnapshotService snapshotService() {
+        ProductSnapshotService snapshotService = productSnapshotService.getIfAvailable();
+        if(snapshotService == null) {
+            throw new SnapshotsNotSupportedException();
+        }
+        return snapshotService;
+    }
+}
@@ -3,6 +3,7 @@ package edu.tdd.example.domain;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.envers.Audited;
 
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -10,6 +11,7 @@ import javax.persistence.Id;
 
 @Data
 @Entity
+@Audited
 @NoArgsConstructor
 @AllArgsConstructor
 public class Product {
@@ -31,4 +33,12 @@ public class Product {
         this.description = description;
         this.quantity = quantity;
     }
+
+    /**
+     * Copies this product, e.g. to keep a snapshot of a managed entity
+     * @return detached copy of this product
+     */
+    public Product copy() {
+        return new Product(id, name, description, quantity, version);
+    }
 }
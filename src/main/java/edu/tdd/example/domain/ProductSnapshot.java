@@ -0,0 +1,15 @@
+package edu.tdd.example.domain;
+
+import lombok.Value;
+
+/**
+ * Point in time of the catalogue to page through.
+ */
+@Value
+public class ProductSnapshot {
+
+    /**
+     * Last product revision included
+     */
+    int token;
+}
@@ -0,0 +1,21 @@
+package edu.tdd.example.domain;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class ProductSnapshotPage {
+
+    int token;
+
+    /**
+     * Products as of the snapshot, ordered by id
+     */
+    List<Product> products;
+
+    /**
+     * Id to continue after, null on the last page
+     */
+    Integer nextAfter;
+}
@@ -0,0 +1,40 @@
+package edu.tdd.example.domain;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Stock aggregates over all products
+ */
+@Value
+public class ProductStats {
+
+    long products;
+
+    long totalQuantity;
+
+    int lowStockThreshold;
+
+    /**
+     * Products with a quantity at or below the low stock threshold
+     */
+    long lowStock;
+
+    long outOfStock;
+
+    List<QuantityBucket> distribution;
+
+    /**
+     * Products with a quantity between min and max, both inclusive; max is null for the last bucket
+     */
+    @Value
+    public static class QuantityBucket {
+
+        int min;
+
+        Integer max;
+
+        long products;
+    }
+}
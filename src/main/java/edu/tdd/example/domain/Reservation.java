@@ -0,0 +1,20 @@
+package edu.tdd.example.domain;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * Stock of a product held for a checkout until it is committed, released or expires.
+ */
+@Value
+public class Reservation {
+
+    String id;
+
+    Integer productId;
+
+    int quantity;
+
+    Instant expiresAt;
+}
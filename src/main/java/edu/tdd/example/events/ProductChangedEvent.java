@@ -0,0 +1,42 @@
+package edu.tdd.example.events;
+
+import edu.tdd.example.domain.Product;
+import lombok.Value;
+
+/**
+ * Published by the product service after a product was created, updated or deleted.
+ */
+@Value
+public class ProductChangedEvent {
+
+    /**
+     * STOCK_COMMITTED is an update taking the stock of committed reservations
+     */
+    public enum Type { CREATED, UPDATED, DELETED, STOCK_COMMITTED }
+
+    Type type;
+
+    Integer productId;
+
+    /**
+     * State before the change, null when created
+     */
+    Product before;
+
+    /**
+     * State after the change, null when deleted
+     */
+    Product after;
+
+    public static ProductChangedEvent saved(Product before, Product after) {
+        return new ProductChangedEvent(before == null ? Type.CREATED : Type.UPDATED, after.getId(), before, after);
+    }
+
+    public static ProductChangedEvent stockCommitted(Product before, Product after) {
+        return new ProductChangedEvent(Type.STOCK_COMMITTED, after.getId(), before, after);
+    }
+
+    public static ProductChangedEvent deleted(Product before) {
+        return new ProductChangedEvent(Type.DELETED, before.getId(), before, null);
+    }
+}
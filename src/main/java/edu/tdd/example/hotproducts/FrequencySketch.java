@@ -0,0 +1,104 @@
+package edu.tdd.example.hotproducts;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch estimating how often each product id was read, in fixed memory.
+ *
+ * Every id increments one counter in each of four rows and its estimate is the smallest of
+ * them, so estimates can be too high through collisions but never too low. As in TinyLFU all
+ * counters are halved once sampleSize increments were counted, so the estimates follow the
+ * recent traffic rather than the traffic since startup. Increments racing with halving may be
+ * lost, which only makes the estimate of that moment slightly low.
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private final AtomicIntegerArray counters;
+
+    private final int rowMask;
+
+    private final int rowWidth;
+
+    private final int sampleSize;
+
+    private final AtomicInteger additions = new AtomicInteger();
+
+    /**
+     * @param width counters per row, rounded up to a power of two
+     * @param sampleSize increments after which all counters are halved
+     */
+    public FrequencySketch(int width, int sampleSize) {
+        this.rowWidth = Integer.highestOneBit(Math.max(2, width - 1) << 1);
+        this.rowMask = rowWidth - 1;
+        this.sampleSize = sampleSize;
+        this.counters = new AtomicIntegerArray(DEPTH * rowWidth);
+    }
+
+    /**
+     * Counts one read of the id
+     * @param id read
+     * @return estimated reads of the id, including this one
+     */
+    public int increment(int id) {
+        return increment(id, 1);
+    }
+
+    /**
+     * Counts several reads of the id, e.g. to restore a frequency known from an earlier run
+     * @param id read
+     * @param count reads to add
+     * @return estimated reads of the id, including these
+     */
+    public int increment(int id, int count) {
+        int estimate = Integer.MAX_VALUE;
+        for(int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.addAndGet(index(id, row), count));
+        }
+        int added = additions.addAndGet(count);
+        if(added >= sampleSize && added - count < sampleSize) {
+            halve();
+        }
+        return estimate;
+    }
+
+    /**
+     * @param id to estimate
+     * @return estimated recent reads of the id
+     */
+    public int frequency(int id) {
+        int estimate = Integer.MAX_VALUE;
+        for(int row = 0; row < DEPTH; row++) {
+            estimate = Math.min(estimate, counters.get(index(id, row)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Forgets all reads counted so far
+     */
+    public void clear() {
+        for(int index = 0; index < counters.length(); index++) {
+            counters.set(index, 0);
+        }
+        additions.set(0);
+    }
+
+    private void halve() {
+        for(int index = 0; index < counters.length(); index++) {
+            counters.set(index, counters.get(index) >>> 1);
+        }
+        // the halved counters still hold half a sample
+        additions.addAndGet(-sampleSize / 2 - sampleSize % 2);
+    }
+
+    private int index(int id, int row) {
+        long hash = (id + SEEDS[row]) * SEEDS[row];
+        hash += hash >>> 32;
+        return row * rowWidth + ((int) hash & rowMask);
+    }
+}
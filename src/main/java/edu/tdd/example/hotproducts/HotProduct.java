@@ -0,0 +1,22 @@
+package edu.tdd.example.hotproducts;
+
+import lombok.Value;
+
+/**
+ * A product among the most read ones
+ */
+@Value
+public class HotProduct {
+
+    int id;
+
+    /**
+     * Estimated recent reads
+     */
+    int frequency;
+
+    /**
+     * Whether it is served from memory
+     */
+    boolean pinned;
+}
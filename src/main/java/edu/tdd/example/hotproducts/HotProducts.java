@@ -0,0 +1,245 @@
+package edu.tdd.example.hotproducts;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tdd.example.bulkhead.Bulkhead;
+import edu.tdd.example.bulkhead.BulkheadFullException;
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.invalidation.ProductInvalidation;
+import edu.tdd.example.repositories.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds the most read products and serves them from memory.
+ *
+ * Reads of GET /products/{id} are counted in a {@link FrequencySketch}. Ids whose estimate reaches
+ * the minimum frequency become candidates, and each refresh pins the top N candidates: they are
+ * loaded in one query, serialised once and kept until they fall out of the top N, so their responses
+ * need neither a query nor serialisation. A pinned copy is dropped as soon
+ * as an invalidation names a newer version, and reloaded by the next refresh, so reads in between
+ * go to the database and never see the old version.
+ *
+ * Invalidations can be lost, e.g. a multicast datagram, and writes made without going through the
+ * product service publish none. Once the pins are older than the max age, the next refresh loads
+ * them again with the missing ones, in the same query: a changed version is serialised again and a
+ * product no longer found is unpinned, so no copy is served staler than the max age plus one refresh.
+ * The refresh query holds a permit of the scans bulkhead like any other multi-row read.
+ */
+@Slf4j
+public class HotProducts {
+
+    private final FrequencySketch sketch;
+
+    private final ProductRepository productRepository;
+
+    private final Bulkhead scans;
+
+    private final ObjectMapper objectMapper;
+
+    private final boolean enabled;
+
+    private final int topN;
+
+    private final int minFrequency;
+
+    private final long maxAgeNanos;
+
+    /**
+     * Ids reaching the minimum frequency since the last refresh or still in the top N
+     */
+    private final Set<Integer> candidates = ConcurrentHashMap.newKeySet();
+
+    private final Map<Integer, PinnedProduct> pinned = new ConcurrentHashMap<>();
+
+    /**
+     * Sequence of the last invalidation of each candidate, a copy loaded before it is stale
+     */
+    private final Map<Integer, Long> invalidatedAt = new ConcurrentHashMap<>();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private volatile List<HotProduct> top = Collections.emptyList();
+
+    /**
+     * When the pinned products were last loaded again, in nanos
+     */
+    private long validatedAt = System.nanoTime();
+
+    public HotProducts(FrequencySketch sketch, ProductRepository productRepository, Bulkhead scans,
+                       ObjectMapper objectMapper, boolean enabled, int topN, int minFrequency, Duration maxAge) {
+        this.sketch = sketch;
+        this.productRepository = productRepository;
+        this.scans = scans;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.topN = topN;
+        this.minFrequency = minFrequency;
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    /**
+     * Counts a read of the product
+     * @param id of the product read
+     */
+    public void record(Integer id) {
+        if(!enabled || id == null) {
+            return;
+        }
+        if(sketch.increment(id) >= minFrequency && candidates.size() < 4 * topN) {
+            candidates.add(id);
+        }
+    }
+
+    /**
+     * Gets a pinned product, shared by all callers and not to be modified
+     * @param id of the product
+     * @return the product and its JSON or null if it is not pinned
+     */
+    public PinnedProduct getPinned(Integer id) {
+        return id != null ? pinned.get(id) : null;
+    }
+
+    /**
+     * @return the current top products, most read first
+     */
+    public List<HotProduct> getTop() {
+        return top;
+    }
+
+    @EventListener
+    public void onInvalidation(ProductInvalidation invalidation) {
+        Integer id = invalidation.getProductId();
+        if(!candidates.contains(id)) {
+            return;
+        }
+        invalidatedAt.put(id, invalidations.incrementAndGet());
+        pinned.computeIfPresent(id, (key, current) -> !invalidation.isDeleted()
+                && current.getProduct().getVersion() >= invalidation.getVersion() ? current : null);
+    }
+
+    /**
+     * Recomputes the top N, unpins products that left it and loads the ones not pinned yet,
+     * or all of them once the pins reached the max age
+     */
+    public synchronized void refresh() {
+        if(!enabled) {
+            return;
+        }
+        List<HotProduct> ranked = new ArrayList<>();
+        for(Integer id : candidates) {
+            int frequency = sketch.frequency(id);
+            if(frequency >= minFrequency) {
+                ranked.add(new HotProduct(id, frequency, false));
+            }
+        }
+        ranked.sort(Comparator.comparingInt(HotProduct::getFrequency).reversed());
+        if(ranked.size() > topN) {
+            ranked = ranked.subList(0, topN);
+        }
+
+        Set<Integer> topIds = new HashSet<>();
+        ranked.forEach(product -> topIds.add(product.getId()));
+        candidates.retainAll(topIds);
+        invalidatedAt.keySet().retainAll(topIds);
+        pinned.keySet().retainAll(topIds);
+
+        load(topIds);
+
+        List<HotProduct> current = new ArrayList<>(ranked.size());
+        ranked.forEach(product -> current.add(
+                new HotProduct(product.getId(), product.getFrequency(), pinned.containsKey(product.getId()))));
+        top = Collections.unmodifiableList(current);
+    }
+
+    /**
+     * Restores hot products known from an earlier run and pins them
+     * @param hotProducts products with their frequencies
+     */
+    public synchronized void seed(List<HotProduct> hotProducts) {
+        if(!enabled) {
+            return;
+        }
+        for(HotProduct hotProduct : hotProducts) {
+            if(sketch.increment(hotProduct.getId(), hotProduct.getFrequency()) >= minFrequency) {
+                candidates.add(hotProduct.getId());
+            }
+        }
+        refresh();
+    }
+
+    /**
+     * Forgets all counted reads and pinned products
+     */
+    public synchronized void clear() {
+        sketch.clear();
+        candidates.clear();
+        pinned.clear();
+        invalidatedAt.clear();
+        top = Collections.emptyList();
+    }
+
+    private void load(Set<Integer> topIds) {
+        long now = System.nanoTime();
+        boolean revalidate = now - validatedAt >= maxAgeNanos;
+        List<Integer> ids = new ArrayList<>();
+        for(Integer id : topIds) {
+            if(revalidate || !pinned.containsKey(id)) {
+                ids.add(id);
+            }
+        }
+        if(ids.isEmpty()) {
+            return;
+        }
+        long loadedAt = invalidations.get();
+        Iterable<Product> products;
+        try {
+            products = scans.execute(() -> productRepository.findAllById(ids));
+        } catch (BulkheadFullException e) {
+            log.debug("Hot products not loaded, no scan permit available");
+            return;
+        }
+        if(revalidate) {
+            validatedAt = now;
+        }
+        Set<Integer> found = new HashSet<>();
+        for(Product product : products) {
+            found.add(product.getId());
+            PinnedProduct current = pinned.get(product.getId());
+            if(current != null && Objects.equals(current.getProduct().getVersion(), product.getVersion())) {
+                // unchanged, its response body is still valid
+                continue;
+            }
+            PinnedProduct loaded;
+            try {
+                loaded = new PinnedProduct(product, objectMapper.writeValueAsBytes(product));
+            } catch (JsonProcessingException e) {
+                log.error("Product with id {} could not be serialised!", product.getId(), e);
+                continue;
+            }
+            // an invalidation arriving during the query may have changed the product again,
+            // checked under the same lock as the invalidation's removal
+            pinned.compute(product.getId(), (id, pinnedNow) ->
+                    invalidatedAt.getOrDefault(id, 0L) <= loadedAt ? loaded : pinnedNow);
+        }
+        // deleted without an invalidation reaching this instance
+        for(Integer id : ids) {
+            if(!found.contains(id)) {
+                pinned.remove(id);
+            }
+        }
+        log.debug("Loaded {} hot products, {} pinned", ids.size(), pinned.size());
+    }
+}
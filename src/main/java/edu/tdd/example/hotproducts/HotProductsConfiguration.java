@@ -0,0 +1,36 @@
+package edu.tdd.example.hotproducts;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tdd.example.bulkhead.ProductBulkheads;
+import edu.tdd.example.repositories.ProductRepository;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(HotProductsProperties.class)
+public class HotProductsConfiguration {
+
+    @Bean
+    public HotProducts hotProducts(HotProductsProperties properties, ProductRepository productRepository,
+                                   ProductBulkheads bulkheads, ObjectMapper objectMapper) {
+        return new HotProducts(new FrequencySketch(properties.getSketchWidth(), properties.getSampleSize()),
+                productRepository, bulkheads.getScans(), objectMapper, properties.isEnabled(),
+                properties.getTopN(), properties.getMinFrequency(), properties.getMaxAge());
+    }
+
+    @Bean
+    public SchedulingConfigurer hotProductsTasks(HotProductsProperties properties, HotProducts hotProducts) {
+        return registrar -> registrar.addFixedDelayTask(hotProducts::refresh, properties.getRefreshInterval().toMillis());
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public HotProductsEndpoint hotProductsEndpoint(HotProducts hotProducts) {
+        return new HotProductsEndpoint(hotProducts);
+    }
+}
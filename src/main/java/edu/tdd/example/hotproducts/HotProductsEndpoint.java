@@ -0,0 +1,24 @@
+package edu.tdd.example.hotproducts;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * Management endpoint listing the most read products, at /actuator/hotproducts
+ */
+@Endpoint(id = "hotproducts")
+public class HotProductsEndpoint {
+
+    private final HotProducts hotProducts;
+
+    public HotProductsEndpoint(HotProducts hotProducts) {
+        this.hotProducts = hotProducts;
+    }
+
+    @ReadOperation
+    public List<HotProduct> hotProducts() {
+        return hotProducts.getTop();
+    }
+}
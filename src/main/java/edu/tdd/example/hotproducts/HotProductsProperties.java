@@ -0,0 +1,47 @@
+package edu.tdd.example.hotproducts;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("products.hot")
+public class HotProductsProperties {
+
+    /**
+     * Whether the most read products are served from memory
+     */
+    private boolean enabled = true;
+
+    /**
+     * Most products pinned in memory
+     */
+    private int topN = 256;
+
+    /**
+     * Estimated reads within the sample a product needs to be pinned
+     */
+    private int minFrequency = 64;
+
+    /**
+     * Reads after which all frequencies are halved, so they follow the recent traffic
+     */
+    private int sampleSize = 100_000;
+
+    /**
+     * Counters per row of the frequency sketch
+     */
+    private int sketchWidth = 16_384;
+
+    /**
+     * How often the top products are recomputed and newly hot or changed ones loaded
+     */
+    private Duration refreshInterval = Duration.ofMillis(500);
+
+    /**
+     * How long pinned products are served before a refresh loads them again, bounding their
+     * staleness when an invalidation is lost or a write bypasses the product service
+     */
+    private Duration maxAge = Duration.ofSeconds(5);
+}
@@ -0,0 +1,21 @@
+package edu.tdd.example.hotproducts;
+
+import edu.tdd.example.domain.Product;
+import lombok.Value;
+
+/**
+ * A product held in memory with its response body, serialised once when pinned
+ */
+@Value
+public class PinnedProduct {
+
+    /**
+     * Shared by all readers, not to be modified
+     */
+    Product product;
+
+    /**
+     * JSON of the product as the controller would write it, not to be modified
+     */
+    byte[] json;
+}
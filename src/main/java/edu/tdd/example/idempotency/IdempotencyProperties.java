@@ -0,0 +1,26 @@
+package edu.tdd.example.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("products.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Most keys remembered; the oldest are evicted first
+     */
+    private int maxEntries = 10_000;
+
+    /**
+     * How long a stored response is replayed for its key
+     */
+    private Duration ttl = Duration.ofHours(1);
+
+    /**
+     * How long a duplicate waits for the first request with its key to finish
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+}
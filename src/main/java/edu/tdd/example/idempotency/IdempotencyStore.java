@@ -0,0 +1,209 @@
+package edu.tdd.example.idempotency;
+
+import org.springframework.http.ResponseEntity;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the responses of requests carrying an idempotency key.
+ *
+ * The first request with a key runs; requests repeating the key get its stored response,
+ * waiting for it while the first one is still running. Only successful responses are kept,
+ * so a failed request can be retried with the same key. Entries expire after the TTL and
+ * the oldest completed ones are evicted beyond the maximum number of entries.
+ */
+public class IdempotencyStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Head of the entries linked in insertion order, its next is the oldest and its previous the newest.
+     * Entries link themselves, so forgetting one unlinks it without searching; guarded by itself
+     */
+    private final Entry insertionOrder = new Entry(null, null, 0);
+
+    /**
+     * Entries linked in insertion order, guarded by the insertion order
+     */
+    private int ordered;
+
+    private final int maxEntries;
+
+    private final long ttlMillis;
+
+    private final long waitTimeoutMillis;
+
+    private final Clock clock;
+
+    public IdempotencyStore(int maxEntries, Duration ttl, Duration waitTimeout, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttl.toMillis();
+        this.waitTimeoutMillis = waitTimeout.toMillis();
+        this.clock = clock;
+        insertionOrder.previous = insertionOrder;
+        insertionOrder.next = insertionOrder;
+    }
+
+    /**
+     * Runs the call once per key
+     * @param key idempotency key sent by the client
+     * @param request request the key was sent with, compared by equals with later uses of the key
+     * @param call producing the response
+     * @return response of the call, or the stored response if the key was already used
+     * @throws IdempotencyKeyReusedException if the key was used with a different request
+     * @throws IdempotentRequestInProgressException if the first request did not finish in time
+     */
+    public ResponseEntity<?> execute(String key, Object request, Supplier<ResponseEntity<?>> call) {
+        while(true) {
+            long now = clock.millis();
+            Entry entry = new Entry(key, request, now);
+            Entry existing = entries.putIfAbsent(key, entry);
+            if(existing != null && existing.isExpired(now, ttlMillis)) {
+                forget(existing);
+                continue;
+            }
+            if(existing == null) {
+                link(entry);
+                evict(now);
+                return run(entry, call);
+            }
+
+            if(!existing.request.equals(request)) {
+                throw new IdempotencyKeyReusedException(key);
+            }
+            ResponseEntity<?> stored = await(existing);
+            if(stored != null) {
+                return stored;
+            }
+            // the first request failed and was forgotten, run again
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private ResponseEntity<?> run(Entry entry, Supplier<ResponseEntity<?>> call) {
+        try {
+            ResponseEntity<?> response = call.get();
+            if(!response.getStatusCode().is2xxSuccessful()) {
+                forget(entry);
+            }
+            entry.response.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            forget(entry);
+            entry.response.complete(null);
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for a response stored by another request
+     * @return the response if it was successful, null if it has to be run again
+     */
+    private ResponseEntity<?> await(Entry entry) {
+        try {
+            ResponseEntity<?> response = entry.response.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+            return response != null && response.getStatusCode().is2xxSuccessful() ? response : null;
+        } catch (TimeoutException e) {
+            throw new IdempotentRequestInProgressException(entry.key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotentRequestInProgressException(entry.key);
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Forgets the oldest completed entries while they are expired or beyond the maximum.
+     * Running entries are skipped, dropping one would let a retry of its key run again.
+     */
+    private void evict(long now) {
+        synchronized(insertionOrder) {
+            Entry oldest = insertionOrder.next;
+            while(oldest != insertionOrder) {
+                if(!oldest.isExpired(now, ttlMillis) && ordered <= maxEntries) {
+                    break;
+                }
+                Entry next = oldest.next;
+                if(oldest.isDone()) {
+                    forget(oldest);
+                }
+                oldest = next;
+            }
+        }
+    }
+
+    private void link(Entry entry) {
+        synchronized(insertionOrder) {
+            Entry newest = insertionOrder.previous;
+            entry.previous = newest;
+            entry.next = insertionOrder;
+            newest.next = entry;
+            insertionOrder.previous = entry;
+            ordered++;
+        }
+    }
+
+    /**
+     * Removes the entry from the map and from the insertion order, so it no longer counts
+     * against the maximum number of entries
+     */
+    private void forget(Entry entry) {
+        entries.remove(entry.key, entry);
+        synchronized(insertionOrder) {
+            if(entry.previous != null) {
+                entry.previous.next = entry.next;
+                entry.next.previous = entry.previous;
+                entry.previous = null;
+                entry.next = null;
+                ordered--;
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final String key;
+
+        private final Object request;
+
+        private final long createdAt;
+
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        /**
+         * Neighbours in the insertion order, null once unlinked; guarded by the insertion order
+         */
+        private Entry previous;
+
+        private Entry next;
+
+        Entry(String key, Object request, long createdAt) {
+            this.key = key;
+            this.request = request;
+            this.createdAt = createdAt;
+        }
+
+        boolean isDone() {
+            return response.isDone();
+        }
+
+        /**
+         * Only completed entries expire, a running one still guards its key
+         */
+        boolean isExpired(long now, long ttlMillis) {
+            return isDone() && now - createdAt > ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package edu.tdd.example.invalidation;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers invalidations synchronously to every bus joined to the same hub.
+ */
+public class InJvmInvalidationBus implements ProductInvalidationBus, Closeable {
+
+    private final InJvmInvalidationHub hub;
+
+    private final List<Consumer<ProductInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    public InJvmInvalidationBus(InJvmInvalidationHub hub) {
+        this.hub = hub;
+        hub.join(this);
+    }
+
+    @Override
+    public void publish(ProductInvalidation invalidation) {
+        deliver(invalidation);
+        hub.broadcast(this, invalidation);
+    }
+
+    @Override
+    public void subscribe(Consumer<ProductInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    void deliver(ProductInvalidation invalidation) {
+        subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+    }
+
+    @Override
+    public void close() {
+        hub.leave(this);
+    }
+}
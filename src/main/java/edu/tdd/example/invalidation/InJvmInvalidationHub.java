@@ -0,0 +1,32 @@
+package edu.tdd.example.invalidation;
+
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Connects in-JVM buses, standing in for a broker in tests and benchmarks.
+ *
+ * Each application context has its own hub, so contexts started in the same JVM, e.g. by
+ * tests, do not see each other's invalidations. A benchmark running several instances in
+ * one JVM registers one hub instance in all their contexts.
+ */
+public class InJvmInvalidationHub {
+
+    private final Set<InJvmInvalidationBus> buses = new CopyOnWriteArraySet<>();
+
+    void join(InJvmInvalidationBus bus) {
+        buses.add(bus);
+    }
+
+    void leave(InJvmInvalidationBus bus) {
+        buses.remove(bus);
+    }
+
+    void broadcast(InJvmInvalidationBus sender, ProductInvalidation invalidation) {
+        for(InJvmInvalidationBus bus : buses) {
+            if(bus != sender) {
+                bus.deliver(invalidation);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package edu.tdd.example.invalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+
+@Configuration
+@EnableConfigurationProperties(InvalidationProperties.class)
+public class InvalidationConfiguration {
+
+    /**
+     * Hub of this context only, unless one shared by several contexts was registered
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public InJvmInvalidationHub inJvmInvalidationHub() {
+        return new InJvmInvalidationHub();
+    }
+
+    @Bean
+    public ProductInvalidationBus productInvalidationBus(InvalidationProperties properties,
+                                                         InJvmInvalidationHub inJvmInvalidationHub) throws IOException {
+        switch(properties.getTransport()) {
+            case MULTICAST:
+                NetworkInterface networkInterface = StringUtils.hasText(properties.getNetworkInterface())
+                        ? NetworkInterface.getByName(properties.getNetworkInterface())
+                        : null;
+                return new MulticastInvalidationBus(
+                        new InetSocketAddress(InetAddress.getByName(properties.getGroup()), properties.getPort()),
+                        networkInterface, properties.getTimeToLive());
+            default:
+                return new InJvmInvalidationBus(inJvmInvalidationHub);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package edu.tdd.example.invalidation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("products.invalidation")
+public class InvalidationProperties {
+
+    /**
+     * How invalidations reach the other instances
+     */
+    private Transport transport = Transport.IN_JVM;
+
+    /**
+     * Multicast group shared by all instances
+     */
+    private String group = "239.255.27.1";
+
+    private int port = 4446;
+
+    /**
+     * Network interface to join the group on, the default one when empty
+     */
+    private String networkInterface;
+
+    /**
+     * Hops multicast datagrams may travel, 0 keeps them on this host
+     */
+    private int timeToLive = 1;
+
+    public enum Transport {
+        /**
+         * Only instances running in this JVM, e.g. in tests
+         */
+        IN_JVM,
+        /**
+         * UDP multicast on the local network
+         */
+        MULTICAST
+    }
+}
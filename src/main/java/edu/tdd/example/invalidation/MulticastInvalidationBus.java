@@ -0,0 +1,119 @@
+package edu.tdd.example.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts invalidations as UDP multicast datagrams, one per change, with no broker.
+ *
+ * A datagram holds the product id, the version (-1 when deleted) and the sending bus id,
+ * used to drop the sender's own datagrams since local subscribers were already called.
+ */
+@Slf4j
+public class MulticastInvalidationBus implements ProductInvalidationBus, Closeable {
+
+    private static final byte FORMAT = 1;
+
+    private static final int DATAGRAM_SIZE = 1 + 4 + 4 + 16;
+
+    private final UUID origin = UUID.randomUUID();
+
+    private final List<Consumer<ProductInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    private final InetSocketAddress group;
+
+    private final MulticastSocket socket;
+
+    private final Thread receiver;
+
+    private volatile boolean running = true;
+
+    /**
+     * Joins the multicast group and starts receiving
+     * @param group multicast address and port shared by all instances
+     * @param networkInterface to join the group on, or null for the default one
+     * @param timeToLive hops datagrams may travel, 0 keeps them on this host
+     */
+    public MulticastInvalidationBus(InetSocketAddress group, NetworkInterface networkInterface, int timeToLive) throws IOException {
+        this.group = group;
+        this.socket = new MulticastSocket(group.getPort());
+        socket.setTimeToLive(timeToLive);
+        if(networkInterface != null) {
+            socket.setNetworkInterface(networkInterface);
+        }
+        socket.joinGroup(group, networkInterface);
+        this.receiver = new Thread(this::receive, "product-invalidation-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+    }
+
+    @Override
+    public void publish(ProductInvalidation invalidation) {
+        deliver(invalidation);
+        ByteBuffer buffer = ByteBuffer.allocate(DATAGRAM_SIZE)
+                .put(FORMAT)
+                .putInt(invalidation.getProductId())
+                .putInt(invalidation.isDeleted() ? -1 : invalidation.getVersion())
+                .putLong(origin.getMostSignificantBits())
+                .putLong(origin.getLeastSignificantBits());
+        try {
+            socket.send(new DatagramPacket(buffer.array(), DATAGRAM_SIZE, group));
+        } catch(IOException e) {
+            // the change is committed already, peers catch up when their entries expire
+            log.warn("Could not broadcast invalidation of product {}", invalidation.getProductId(), e);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<ProductInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    private void receive() {
+        byte[] data = new byte[DATAGRAM_SIZE];
+        DatagramPacket packet = new DatagramPacket(data, data.length);
+        while(running) {
+            try {
+                packet.setLength(data.length);
+                socket.receive(packet);
+                ByteBuffer buffer = ByteBuffer.wrap(data, 0, packet.getLength());
+                if(packet.getLength() != DATAGRAM_SIZE || buffer.get() != FORMAT) {
+                    continue;
+                }
+                int productId = buffer.getInt();
+                int version = buffer.getInt();
+                if(buffer.getLong() == origin.getMostSignificantBits() && buffer.getLong() == origin.getLeastSignificantBits()) {
+                    continue;
+                }
+                deliver(new ProductInvalidation(productId, version < 0 ? null : version));
+            } catch(IOException e) {
+                if(running) {
+                    log.warn("Could not receive product invalidation", e);
+                }
+            } catch(RuntimeException e) {
+                log.error("Product invalidation subscriber failed", e);
+            }
+        }
+    }
+
+    private void deliver(ProductInvalidation invalidation) {
+        subscribers.forEach(subscriber -> subscriber.accept(invalidation));
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        socket.close();
+    }
+}
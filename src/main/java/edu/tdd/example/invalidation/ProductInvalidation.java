@@ -0,0 +1,24 @@
+package edu.tdd.example.invalidation;
+
+import lombok.Value;
+
+/**
+ * Tells every instance that its cached copy of a product is stale.
+ *
+ * Also published as an application event on each instance receiving it,
+ * so caches only need an event listener.
+ */
+@Value
+public class ProductInvalidation {
+
+    int productId;
+
+    /**
+     * Version written, null when the product was deleted. Cached copies of this version are still fresh.
+     */
+    Integer version;
+
+    public boolean isDeleted() {
+        return version == null;
+    }
+}
@@ -0,0 +1,25 @@
+package edu.tdd.example.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts product invalidations to all running instances.
+ *
+ * Subscribers of the publishing instance receive its invalidations too, synchronously,
+ * so they see their own writes at once; other instances receive them asynchronously.
+ * Transports may lose messages, so caches should still expire entries after a while.
+ */
+public interface ProductInvalidationBus {
+
+    /**
+     * Sends an invalidation to every instance, including this one
+     * @param invalidation to send
+     */
+    void publish(ProductInvalidation invalidation);
+
+    /**
+     * Registers a subscriber for the invalidations of every instance
+     * @param subscriber to call, possibly from a transport thread
+     */
+    void subscribe(Consumer<ProductInvalidation> subscriber);
+}
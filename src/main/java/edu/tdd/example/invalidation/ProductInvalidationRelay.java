@@ -0,0 +1,35 @@
+package edu.tdd.example.invalidation;
+
+import edu.tdd.example.events.ProductChangedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes an invalidation for each committed product change and republishes
+ * the invalidations of every instance as application events.
+ *
+ * Not lazy, so invalidations from other instances are received from startup on.
+ */
+@Lazy(false)
+@Component
+public class ProductInvalidationRelay {
+
+    private final ProductInvalidationBus bus;
+
+    public ProductInvalidationRelay(ProductInvalidationBus bus, ApplicationEventPublisher eventPublisher) {
+        this.bus = bus;
+        bus.subscribe(eventPublisher::publishEvent);
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if(event.getProductId() == null) {
+            // nothing can have cached a product without id
+            return;
+        }
+        Integer version = event.getAfter() != null ? event.getAfter().getVersion() : null;
+        bus.publish(new ProductInvalidation(event.getProductId(), version));
+    }
+}
@@ -0,0 +1,6 @@
+package edu.tdd.example.replicas;
+
+public enum DataSourceRole {
+    PRIMARY,
+    REPLICA
+}
@@ -0,0 +1,72 @@
+package edu.tdd.example.replicas;
+
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.events.ProductChangedEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Routes product reads to the replica when one is configured, falling back to the
+ * primary for anything the replica has not caught up with yet. Without a replica,
+ * every call simply runs on the primary.
+ */
+@Component
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReadReplicaRouter {
+
+    private final boolean enabled;
+
+    private final ReplicationLagTracker lagTracker;
+
+    public ReadReplicaRouter(ReplicaProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.lagTracker = new ReplicationLagTracker(properties.getMaxLag().toMillis(), Clock.systemUTC());
+    }
+
+    /**
+     * Reads a product from the replica, or the primary if the replica lags behind it
+     * @param id product id
+     * @param finder query loading the product
+     * @return the product or null if not found
+     */
+    public Product findById(Integer id, Function<Integer, Product> finder) {
+        if(!enabled) {
+            return finder.apply(id);
+        }
+        Product product = ReplicaRoutingContext.onReplica(() -> finder.apply(id));
+        return lagTracker.isStale(id, product) ? finder.apply(id) : product;
+    }
+
+    /**
+     * Runs a listing query on the replica, or on the primary while recent writes may be missing from it
+     * @param query listing query
+     * @return result of the query
+     */
+    public <T> T findAll(Supplier<T> query) {
+        if(!enabled || lagTracker.hasPendingWrites()) {
+            return query.get();
+        }
+        return ReplicaRoutingContext.onReplica(query);
+    }
+
+    /**
+     * Remembers each change made on the primary until the replica has it
+     * @param event product change
+     */
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if(!enabled) {
+            return;
+        }
+        if(event.getAfter() != null) {
+            lagTracker.written(event.getAfter());
+        } else {
+            lagTracker.deleted(event.getProductId());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package edu.tdd.example.replicas;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("products.replica")
+public class ReplicaProperties {
+
+    /**
+     * Send read-only product queries to the replica
+     */
+    private boolean enabled = false;
+
+    private String url;
+
+    private String username = "sa";
+
+    private String password = "";
+
+    private int poolSize = 10;
+
+    /**
+     * Longest replication lag to expect. Once a write is older than this,
+     * the replica is assumed to have it.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+}
@@ -0,0 +1,39 @@
+package edu.tdd.example.replicas;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the data source role the current thread's queries should use.
+ * Anything not explicitly routed to the replica runs on the primary.
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<DataSourceRole> CURRENT = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {
+    }
+
+    public static DataSourceRole current() {
+        DataSourceRole role = CURRENT.get();
+        return role != null ? role : DataSourceRole.PRIMARY;
+    }
+
+    /**
+     * Runs the call with its queries routed to the replica
+     * @param call to run
+     * @return result of the call
+     */
+    public static <T> T onReplica(Supplier<T> call) {
+        DataSourceRole previous = CURRENT.get();
+        CURRENT.set(DataSourceRole.REPLICA);
+        try {
+            return call.get();
+        } finally {
+            if(previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package edu.tdd.example.replicas;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Picks the primary or replica pool for each new connection from {@link ReplicaRoutingContext}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ReplicaRoutingContext.current();
+    }
+}
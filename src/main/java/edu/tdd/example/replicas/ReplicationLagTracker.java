@@ -0,0 +1,103 @@
+package edu.tdd.example.replicas;
+
+import edu.tdd.example.domain.Product;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers the versions this instance wrote to the primary until the replica has them.
+ *
+ * A replica read of a product is stale while the replica returns an older version
+ * than the last one written here, or still returns a product deleted here.
+ */
+public class ReplicationLagTracker {
+
+    private static final int PURGE_THRESHOLD = 10_000;
+
+    private final Map<Integer, PendingWrite> pendingWrites = new ConcurrentHashMap<>();
+
+    private final long maxLagMillis;
+
+    private final Clock clock;
+
+    public ReplicationLagTracker(long maxLagMillis, Clock clock) {
+        this.maxLagMillis = maxLagMillis;
+        this.clock = clock;
+    }
+
+    public void written(Product product) {
+        record(product.getId(), new PendingWrite(product.getVersion(), clock.millis()));
+    }
+
+    public void deleted(Integer id) {
+        record(id, new PendingWrite(null, clock.millis()));
+    }
+
+    /**
+     * Checks a product read from the replica against the writes made here
+     * @param id of the product read
+     * @param replicaProduct product returned by the replica, null if not found
+     * @return true if the primary has to be asked instead
+     */
+    public boolean isStale(Integer id, Product replicaProduct) {
+        PendingWrite write = pendingWrites.get(id);
+        if(write == null) {
+            return false;
+        }
+        if(write.isExpired(clock.millis()) || write.isVisibleIn(replicaProduct)) {
+            pendingWrites.remove(id, write);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks for writes the replica may not have yet
+     * @return true if listings have to be read from the primary
+     */
+    public boolean hasPendingWrites() {
+        purgeExpired();
+        return !pendingWrites.isEmpty();
+    }
+
+    private void record(Integer id, PendingWrite write) {
+        if(pendingWrites.size() > PURGE_THRESHOLD) {
+            purgeExpired();
+        }
+        pendingWrites.put(id, write);
+    }
+
+    private void purgeExpired() {
+        long now = clock.millis();
+        pendingWrites.values().removeIf(write -> write.isExpired(now));
+    }
+
+    private final class PendingWrite {
+
+        /**
+         * Version written, null for a delete
+         */
+        private final Integer version;
+
+        private final long writtenAt;
+
+        PendingWrite(Integer version, long writtenAt) {
+            this.version = version;
+            this.writtenAt = writtenAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - writtenAt > maxLagMillis;
+        }
+
+        boolean isVisibleIn(Product replicaProduct) {
+            if(version == null) {
+                return replicaProduct == null;
+            }
+            return replicaProduct != null && replicaProduct.getVersion() != null
+                    && replicaProduct.getVersion() >= version;
+        }
+    }
+}
@@ -1,8 +1,18 @@
 package edu.tdd.example.repositories;
 
 import edu.tdd.example.domain.Product;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 
-public interface ProductRepository extends CrudRepository<Product,Integer> {
+import java.util.List;
+
+public interface ProductRepository extends CrudRepository<Product,Integer>, ProductStockOperations {
     Product findProductById(Integer id);
+
+    /**
+     * Aggregates the stock distribution in the database
+     * @return number of products per distinct quantity
+     */
+    @Query("select p.quantity as quantity, count(p) as products from Product p group by p.quantity")
+    List<QuantityCount> countByQuantity();
 }
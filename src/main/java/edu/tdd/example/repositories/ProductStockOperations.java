@@ -0,0 +1,12 @@
+package edu.tdd.example.repositories;
+
+public interface ProductStockOperations {
+
+    /**
+     * Takes stock out of a product atomically, bumping its version
+     * @param id of the product
+     * @param quantity to take
+     * @return number of updated rows, 0 if the product is missing or has less stock than requested
+     */
+    int decrementQuantity(Integer id, int quantity);
+}
@@ -0,0 +1,30 @@
+package edu.tdd.example.repositories;
+
+import edu.tdd.example.domain.Product;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Stock updates of the JPA repository. They go through the entity under a row lock
+ * rather than a bulk update, which would bypass the product history.
+ */
+public class ProductStockOperationsImpl implements ProductStockOperations {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int decrementQuantity(Integer id, int quantity) {
+        Product product = entityManager.find(Product.class, id, LockModeType.PESSIMISTIC_WRITE);
+        if(product == null || product.getQuantity() == null || product.getQuantity() < quantity) {
+            return 0;
+        }
+        product.setQuantity(product.getQuantity() - quantity);
+        product.setVersion(product.getVersion() + 1);
+        return 1;
+    }
+}
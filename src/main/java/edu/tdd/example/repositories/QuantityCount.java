@@ -0,0 +1,25 @@
+package edu.tdd.example.repositories;
+
+/**
+ * Number of products having a given quantity in stock
+ */
+public interface QuantityCount {
+
+    Integer getQuantity();
+
+    Long getProducts();
+
+    static QuantityCount of(Integer quantity, long products) {
+        return new QuantityCount() {
+            @Override
+            public Integer getQuantity() {
+                return quantity;
+            }
+
+            @Override
+            public Long getProducts() {
+                return products;
+            }
+        };
+    }
+}
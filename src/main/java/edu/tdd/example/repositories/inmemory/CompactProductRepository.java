@@ -0,0 +1,456 @@
+package edu.tdd.example.repositories.inmemory;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.repositories.ProductRepository;
+import edu.tdd.example.repositories.QuantityCount;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Product repository keeping all products in memory, in primitive columns.
+ *
+ * Each product is a row of five int arrays: id, quantity, version and the arena offsets of its
+ * name and description, found through an int keyed {@link IdIndex}. Names and descriptions are
+ * stored once per distinct value in a {@link StringArena}. Products are only materialised when
+ * read, so a stored product costs about 30 bytes plus its distinct strings.
+ *
+ * Point reads are optimistic: they copy the row without locking and retry under the read lock
+ * only if a write ran meanwhile. Writes and scans take the write and read lock of one StampedLock.
+ *
+ * Updates and deletes leave the strings they no longer reference in the append-only arena. Once the
+ * arena has doubled since it was last compacted and references were dropped meanwhile, the strings of
+ * the live rows are copied into a new arena, so it holds at most about twice the live strings at their peak.
+ */
+public class CompactProductRepository implements ProductRepository {
+
+    private static final int NULL_NUMBER = Integer.MIN_VALUE;
+
+    private static final ObjectReader PRODUCT_READER = new ObjectMapper().readerFor(Product.class);
+
+    private final StampedLock lock = new StampedLock();
+
+    private final int initialCapacity;
+
+    private final IdIndex index;
+
+    private Columns columns;
+
+    private StringArena strings;
+
+    /**
+     * Rows handed out so far, live or free
+     */
+    private int rows;
+
+    private int[] freeRows = new int[16];
+
+    private int freeCount;
+
+    /**
+     * String references dropped by updates and deletes since the arena was last compacted
+     */
+    private int droppedStrings;
+
+    /**
+     * Arena length after the last compaction
+     */
+    private int compactedLength;
+
+    public CompactProductRepository(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+        this.index = new IdIndex(initialCapacity);
+        this.columns = new Columns(initialCapacity);
+        this.strings = new StringArena(initialCapacity * 16);
+    }
+
+    /**
+     * Loads a JSON array of products, such as a test fixture, holding the write lock once for all of them
+     * @param json array of products
+     * @return number of products loaded
+     */
+    public int load(InputStream json) throws IOException {
+        int loaded = 0;
+        try(MappingIterator<Product> products = PRODUCT_READER.readValues(json)) {
+            long stamp = lock.writeLock();
+            try {
+                while(products.hasNextValue()) {
+                    upsert(checkId(products.nextValue()));
+                    loaded++;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public Product findProductById(Integer id) {
+        if(id == null) {
+            return null;
+        }
+        Row row = optimisticRead(() -> readRow(id));
+        return row != null ? row.toProduct() : null;
+    }
+
+    @Override
+    public Optional<Product> findById(Integer id) {
+        return Optional.ofNullable(findProductById(id));
+    }
+
+    @Override
+    public boolean existsById(Integer id) {
+        return id != null && optimisticRead(() -> index.get(id) != IdIndex.ABSENT);
+    }
+
+    @Override
+    public <S extends Product> S save(S product) {
+        checkId(product);
+        long stamp = lock.writeLock();
+        try {
+            upsert(product);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return product;
+    }
+
+    @Override
+    public <S extends Product> Iterable<S> saveAll(Iterable<S> products) {
+        List<S> saved = new ArrayList<>();
+        products.forEach(product -> saved.add(checkId(product)));
+        long stamp = lock.writeLock();
+        try {
+            saved.forEach(this::upsert);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return saved;
+    }
+
+    @Override
+    public Iterable<Product> findAll() {
+        long stamp = lock.readLock();
+        try {
+            long[] idsAndRows = new long[index.size()];
+            int[] count = {0};
+            // sorting id and row packed in a long orders by id
+            index.forEach((id, row) -> idsAndRows[count[0]++] = ((long) id << 32) | row);
+            Arrays.sort(idsAndRows);
+            List<Product> products = new ArrayList<>(idsAndRows.length);
+            for(long idAndRow : idsAndRows) {
+                products.add(new Row(columns, (int) idAndRow, strings).toProduct());
+            }
+            return products;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public Iterable<Product> findAllById(Iterable<Integer> ids) {
+        List<Integer> sortedIds = new ArrayList<>();
+        ids.forEach(sortedIds::add);
+        sortedIds.sort(null);
+        long stamp = lock.readLock();
+        try {
+            List<Product> products = new ArrayList<>(sortedIds.size());
+            for(Integer id : sortedIds) {
+                Row row = id != null ? readRow(id) : null;
+                if(row != null) {
+                    products.add(row.toProduct());
+                }
+            }
+            return products;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public List<QuantityCount> countByQuantity() {
+        Map<Integer, Long> products = new HashMap<>();
+        long stamp = lock.readLock();
+        try {
+            int[] quantities = columns.quantities;
+            index.forEach((id, row) -> products.merge(number(quantities[row]), 1L, Long::sum));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        return products.entrySet().stream()
+                .map(entry -> QuantityCount.of(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int decrementQuantity(Integer id, int quantity) {
+        long stamp = lock.writeLock();
+        try {
+            int row = index.get(id);
+            if(row == IdIndex.ABSENT) {
+                return 0;
+            }
+            int available = columns.quantities[row];
+            if(available == NULL_NUMBER || available < quantity) {
+                return 0;
+            }
+            columns.quantities[row] = available - quantity;
+            columns.versions[row] = columns.versions[row] == NULL_NUMBER ? 1 : columns.versions[row] + 1;
+            return 1;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public long count() {
+        return optimisticRead(index::size);
+    }
+
+    @Override
+    public void deleteById(Integer id) {
+        if(!remove(id)) {
+            throw new EmptyResultDataAccessException("No product with id " + id + " exists!", 1);
+        }
+    }
+
+    @Override
+    public void delete(Product product) {
+        remove(product.getId());
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Product> products) {
+        products.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        long stamp = lock.writeLock();
+        try {
+            index.clear(initialCapacity);
+            columns = new Columns(initialCapacity);
+            // readers may still decode offsets of the old arena, so it is replaced rather than cleared
+            strings = new StringArena(initialCapacity * 16);
+            rows = 0;
+            freeCount = 0;
+            droppedStrings = 0;
+            compactedLength = 0;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return bytes held by the arena for names and descriptions
+     */
+    public long getStringBytes() {
+        return optimisticRead(() -> strings.length());
+    }
+
+    private boolean remove(Integer id) {
+        if(id == null) {
+            return false;
+        }
+        long stamp = lock.writeLock();
+        try {
+            int row = index.remove(id);
+            if(row == IdIndex.ABSENT) {
+                return false;
+            }
+            if(freeCount == freeRows.length) {
+                freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+            }
+            freeRows[freeCount++] = row;
+            drop(columns.names[row]);
+            drop(columns.descriptions[row]);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Runs a read without locking, and again under the read lock if a write ran meanwhile.
+     * The read must not fail on inconsistent state and its result must not be used before validation.
+     */
+    private <T> T optimisticRead(Supplier<T> read) {
+        long stamp = lock.tryOptimisticRead();
+        if(stamp != 0) {
+            T result = read.get();
+            if(lock.validate(stamp)) {
+                return result;
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Row readRow(int id) {
+        Columns current = columns;
+        int row = index.get(id);
+        if(row == IdIndex.ABSENT || row >= current.ids.length) {
+            // absent, or a torn read that fails validation
+            return null;
+        }
+        return new Row(current, row, strings);
+    }
+
+    private void upsert(Product product) {
+        int id = product.getId();
+        int row = index.get(id);
+        boolean existing = row != IdIndex.ABSENT;
+        if(!existing) {
+            row = allocateRow();
+            columns.ids[row] = id;
+            index.put(id, row);
+        }
+        int name = strings.intern(product.getName());
+        int description = strings.intern(product.getDescription());
+        if(existing) {
+            if(columns.names[row] != name) {
+                drop(columns.names[row]);
+            }
+            if(columns.descriptions[row] != description) {
+                drop(columns.descriptions[row]);
+            }
+        }
+        columns.quantities[row] = number(product.getQuantity());
+        columns.versions[row] = number(product.getVersion());
+        columns.names[row] = name;
+        columns.descriptions[row] = description;
+        if(droppedStrings > 0 && strings.length() > Math.max(2 * compactedLength, initialCapacity * 16)) {
+            compact();
+        }
+    }
+
+    private void drop(int string) {
+        if(string != StringArena.NULL) {
+            droppedStrings++;
+        }
+    }
+
+    /**
+     * Copies the strings of the live rows into a new arena, the old one stays readable for readers holding its offsets
+     */
+    private void compact() {
+        StringArena previous = strings;
+        StringArena compacted = new StringArena(initialCapacity * 16);
+        Columns current = columns;
+        index.forEach((id, row) -> {
+            current.names[row] = compacted.intern(previous.get(current.names[row]));
+            current.descriptions[row] = compacted.intern(previous.get(current.descriptions[row]));
+        });
+        strings = compacted;
+        compactedLength = compacted.length();
+        droppedStrings = 0;
+    }
+
+    private int allocateRow() {
+        if(freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+        if(rows == columns.ids.length) {
+            columns = columns.grow(Math.max(16, rows * 2));
+        }
+        return rows++;
+    }
+
+    private static <S extends Product> S checkId(S product) {
+        if(product.getId() == null) {
+            throw new IllegalArgumentException("In-memory products need a client assigned id");
+        }
+        return product;
+    }
+
+    private static int number(Integer value) {
+        return value != null ? value : NULL_NUMBER;
+    }
+
+    private static Integer number(int value) {
+        return value != NULL_NUMBER ? value : null;
+    }
+
+    /**
+     * Column arrays, replaced together when they grow
+     */
+    private static final class Columns {
+
+        private final int[] ids;
+
+        private final int[] quantities;
+
+        private final int[] versions;
+
+        private final int[] names;
+
+        private final int[] descriptions;
+
+        Columns(int capacity) {
+            this(new int[capacity], new int[capacity], new int[capacity], new int[capacity], new int[capacity]);
+        }
+
+        private Columns(int[] ids, int[] quantities, int[] versions, int[] names, int[] descriptions) {
+            this.ids = ids;
+            this.quantities = quantities;
+            this.versions = versions;
+            this.names = names;
+            this.descriptions = descriptions;
+        }
+
+        Columns grow(int capacity) {
+            return new Columns(Arrays.copyOf(ids, capacity), Arrays.copyOf(quantities, capacity),
+                    Arrays.copyOf(versions, capacity), Arrays.copyOf(names, capacity),
+                    Arrays.copyOf(descriptions, capacity));
+        }
+    }
+
+    /**
+     * Copy of a row, turned into a product only once the read is known to be consistent
+     */
+    private static final class Row {
+
+        private final int id;
+
+        private final int quantity;
+
+        private final int version;
+
+        private final int name;
+
+        private final int description;
+
+        private final StringArena strings;
+
+        Row(Columns columns, int row, StringArena strings) {
+            this.id = columns.ids[row];
+            this.quantity = columns.quantities[row];
+            this.version = columns.versions[row];
+            this.name = columns.names[row];
+            this.description = columns.descriptions[row];
+            this.strings = strings;
+        }
+
+        Product toProduct() {
+            return new Product(id, strings.get(name), strings.get(description), number(quantity), number(version));
+        }
+    }
+}
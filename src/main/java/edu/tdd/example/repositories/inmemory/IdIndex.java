@@ -0,0 +1,153 @@
+package edu.tdd.example.repositories.inmemory;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing map from product id to the row holding it, in two int arrays.
+ *
+ * Linear probing with deletion by shifting back the following entries, so there are no
+ * tombstones and a lookup stops at the first empty bucket. Not thread safe: writes need the
+ * store's write lock, lookups racing with a write may return a wrong row but never fail,
+ * as the arrays of a table are replaced together and probing is bounded by its length.
+ */
+final class IdIndex {
+
+    static final int ABSENT = -1;
+
+    private Table table;
+
+    private int size;
+
+    IdIndex(int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    int get(int id) {
+        Table current = table;
+        int mask = current.keys.length - 1;
+        int bucket = home(id, mask);
+        for(int probe = 0; probe <= mask; probe++) {
+            int row = current.rows[bucket];
+            if(row == ABSENT || current.keys[bucket] == id) {
+                return row;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Maps an id not in the index yet to its row
+     */
+    void put(int id, int row) {
+        if(size + 1 > table.keys.length * 3 / 4) {
+            resize(table.keys.length * 2);
+        }
+        insert(table, id, row);
+        size++;
+    }
+
+    /**
+     * @return row the id was mapped to, or ABSENT
+     */
+    int remove(int id) {
+        Table current = table;
+        int mask = current.keys.length - 1;
+        int bucket = home(id, mask);
+        while(current.rows[bucket] != ABSENT && current.keys[bucket] != id) {
+            bucket = (bucket + 1) & mask;
+        }
+        int row = current.rows[bucket];
+        if(row == ABSENT) {
+            return ABSENT;
+        }
+        // shift back entries whose probe sequence passed the emptied bucket
+        int empty = bucket;
+        int next = (empty + 1) & mask;
+        while(current.rows[next] != ABSENT) {
+            int nextHome = home(current.keys[next], mask);
+            if(((next - nextHome) & mask) >= ((next - empty) & mask)) {
+                current.keys[empty] = current.keys[next];
+                current.rows[empty] = current.rows[next];
+                empty = next;
+            }
+            next = (next + 1) & mask;
+        }
+        current.rows[empty] = ABSENT;
+        size--;
+        return row;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear(int expectedSize) {
+        table = new Table(capacityFor(expectedSize));
+        size = 0;
+    }
+
+    /**
+     * Calls the visitor with each id and row, in no particular order
+     */
+    void forEach(Visitor visitor) {
+        Table current = table;
+        for(int bucket = 0; bucket < current.keys.length; bucket++) {
+            if(current.rows[bucket] != ABSENT) {
+                visitor.visit(current.keys[bucket], current.rows[bucket]);
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        Table resized = new Table(capacity);
+        Table current = table;
+        for(int bucket = 0; bucket < current.keys.length; bucket++) {
+            if(current.rows[bucket] != ABSENT) {
+                insert(resized, current.keys[bucket], current.rows[bucket]);
+            }
+        }
+        table = resized;
+    }
+
+    private static void insert(Table table, int id, int row) {
+        int mask = table.keys.length - 1;
+        int bucket = home(id, mask);
+        while(table.rows[bucket] != ABSENT) {
+            bucket = (bucket + 1) & mask;
+        }
+        table.keys[bucket] = id;
+        table.rows[bucket] = row;
+    }
+
+    private static int home(int id, int mask) {
+        // ids are often sequential, spread them over the whole table
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while(capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    interface Visitor {
+        void visit(int id, int row);
+    }
+
+    private static final class Table {
+
+        private final int[] keys;
+
+        private final int[] rows;
+
+        Table(int capacity) {
+            this.keys = new int[capacity];
+            this.rows = new int[capacity];
+            Arrays.fill(rows, ABSENT);
+        }
+    }
+}
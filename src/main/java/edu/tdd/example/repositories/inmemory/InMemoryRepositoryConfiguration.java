@@ -0,0 +1,45 @@
+package edu.tdd.example.repositories.inmemory;
+
+import edu.tdd.example.repositories.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Replaces the JPA product repository by a compact in-memory one when the inmemory profile is active,
+ * for tests and edge deployments without a database.
+ *
+ * The profile excludes the data source and JPA auto-configuration (application-inmemory.properties),
+ * so no database, Hibernate or product history is started. Product snapshots answer NOT_IMPLEMENTED.
+ */
+@Slf4j
+@Profile("inmemory")
+@Configuration
+@EnableConfigurationProperties(InMemoryRepositoryProperties.class)
+public class InMemoryRepositoryConfiguration {
+
+    @Bean
+    @Primary
+    public ProductRepository compactProductRepository(InMemoryRepositoryProperties properties) throws IOException {
+        CompactProductRepository productRepository = new CompactProductRepository(properties.getInitialCapacity());
+        if(properties.getFixture() != null) {
+            try(InputStream json = properties.getFixture().getInputStream()) {
+                int loaded = productRepository.load(json);
+                log.info("Loaded {} products from {}", loaded, properties.getFixture());
+            }
+        }
+        return productRepository;
+    }
+
+    @Bean
+    public PlatformTransactionManager inMemoryTransactionManager() {
+        return new InMemoryTransactionManager();
+    }
+}
@@ -0,0 +1,20 @@
+package edu.tdd.example.repositories.inmemory;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.core.io.Resource;
+
+@Data
+@ConfigurationProperties("products.inmemory")
+public class InMemoryRepositoryProperties {
+
+    /**
+     * Products the columns are sized for before growing
+     */
+    private int initialCapacity = 1024;
+
+    /**
+     * JSON array of products loaded at startup, e.g. classpath:products.json, none by default
+     */
+    private Resource fixture;
+}
@@ -0,0 +1,167 @@
+package edu.tdd.example.repositories.inmemory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Append-only store of the names and descriptions of all products, as UTF-8 in one byte array.
+ *
+ * Each distinct string is stored once, as a varint length followed by its bytes, and referred to
+ * by its offset. Products sharing a description share its bytes, and no String or char array is
+ * kept per product. Strings are never removed; the repository drops replaced ones by copying the
+ * strings still referenced into a new arena once enough may have become garbage.
+ *
+ * Writes need the store's write lock. Bytes at an offset never change once written and the array
+ * is published through a volatile field, so an offset read under any lock can be decoded without one.
+ */
+final class StringArena {
+
+    static final int NULL = -1;
+
+    private volatile byte[] data;
+
+    private int length;
+
+    /**
+     * Open addressing set of the offsets of all strings, by content
+     */
+    private int[] offsets;
+
+    private int count;
+
+    StringArena(int initialBytes) {
+        this.data = new byte[Math.max(16, initialBytes)];
+        this.offsets = emptyOffsets(1024);
+    }
+
+    /**
+     * @return offset of the string, stored if not seen before, or NULL for null
+     */
+    int intern(String value) {
+        if(value == null) {
+            return NULL;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int mask = offsets.length - 1;
+        int bucket = hash(bytes) & mask;
+        while(offsets[bucket] != NULL) {
+            if(matches(offsets[bucket], bytes)) {
+                return offsets[bucket];
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        int offset = append(bytes);
+        offsets[bucket] = offset;
+        if(++count > offsets.length / 2) {
+            rehash();
+        }
+        return offset;
+    }
+
+    String get(int offset) {
+        if(offset == NULL) {
+            return null;
+        }
+        byte[] bytes = data;
+        int size = sizeAt(bytes, offset);
+        return new String(bytes, offset + prefixLength(size), size, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return bytes in use, including the length prefixes
+     */
+    int length() {
+        return length;
+    }
+
+    private int append(byte[] bytes) {
+        byte[] current = data;
+        int needed = length + 5 + bytes.length;
+        if(needed > current.length) {
+            current = Arrays.copyOf(current, Math.max(needed, current.length * 2));
+        }
+        int offset = length;
+        int position = offset;
+        int size = bytes.length;
+        while((size & ~0x7F) != 0) {
+            current[position++] = (byte) ((size & 0x7F) | 0x80);
+            size >>>= 7;
+        }
+        current[position++] = (byte) size;
+        System.arraycopy(bytes, 0, current, position, bytes.length);
+        length = position + bytes.length;
+        // publish the grown array only once it holds everything written before
+        data = current;
+        return offset;
+    }
+
+    private boolean matches(int offset, byte[] bytes) {
+        byte[] current = data;
+        int size = sizeAt(current, offset);
+        if(size != bytes.length) {
+            return false;
+        }
+        int start = offset + prefixLength(size);
+        for(int i = 0; i < size; i++) {
+            if(current[start + i] != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash() {
+        byte[] current = data;
+        int[] previous = offsets;
+        offsets = emptyOffsets(previous.length * 2);
+        int mask = offsets.length - 1;
+        for(int offset : previous) {
+            if(offset != NULL) {
+                int size = sizeAt(current, offset);
+                int bucket = hash(current, offset + prefixLength(size), size) & mask;
+                while(offsets[bucket] != NULL) {
+                    bucket = (bucket + 1) & mask;
+                }
+                offsets[bucket] = offset;
+            }
+        }
+    }
+
+    private static int hash(byte[] bytes) {
+        return hash(bytes, 0, bytes.length);
+    }
+
+    private static int hash(byte[] bytes, int from, int size) {
+        int hash = 1;
+        for(int i = from; i < from + size; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int sizeAt(byte[] bytes, int offset) {
+        int size = 0;
+        for(int position = offset, shift = 0; ; position++, shift += 7) {
+            byte next = bytes[position];
+            size |= (next & 0x7F) << shift;
+            if(next >= 0) {
+                return size;
+            }
+        }
+    }
+
+    private static int prefixLength(int size) {
+        int length = 1;
+        while((size >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static int[] emptyOffsets(int capacity) {
+        int[] empty = new int[capacity];
+        Arrays.fill(empty, NULL);
+        return empty;
+    }
+}
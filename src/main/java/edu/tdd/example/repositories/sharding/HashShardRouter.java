@@ -0,0 +1,25 @@
+package edu.tdd.example.repositories.sharding;
+
+/**
+ * Spreads ids evenly over the shards by a mixed hash of the id.
+ */
+public class HashShardRouter implements ShardRouter {
+
+    private final int shards;
+
+    public HashShardRouter(int shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public int shardFor(int id) {
+        // murmur3 finaliser, so sequential ids do not land on shards round-robin
+        int hash = id;
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, shards);
+    }
+}
@@ -0,0 +1,70 @@
+package edu.tdd.example.repositories.sharding;
+
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.repositories.QuantityCount;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Product table of a single shard, accessed with plain JDBC.
+ */
+public class ProductShard {
+
+    private static final RowMapper<Product> PRODUCT_MAPPER = (rs, row) -> new Product(
+            (Integer) rs.getObject("id"),
+            rs.getString("name"),
+            rs.getString("description"),
+            (Integer) rs.getObject("quantity"),
+            (Integer) rs.getObject("version"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductShard(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS product (" +
+                "id INT PRIMARY KEY, name VARCHAR(255), description VARCHAR(255), quantity INT, version INT)");
+    }
+
+    public Product findById(int id) {
+        List<Product> products = jdbcTemplate.query("SELECT * FROM product WHERE id = ?", PRODUCT_MAPPER, id);
+        return products.isEmpty() ? null : products.get(0);
+    }
+
+    /**
+     * Gets all products of this shard
+     * @return products ordered by id
+     */
+    public List<Product> findAll() {
+        return jdbcTemplate.query("SELECT * FROM product ORDER BY id", PRODUCT_MAPPER);
+    }
+
+    public void upsert(Product product) {
+        jdbcTemplate.update("MERGE INTO product (id, name, description, quantity, version) KEY(id) VALUES (?, ?, ?, ?, ?)",
+                product.getId(), product.getName(), product.getDescription(), product.getQuantity(), product.getVersion());
+    }
+
+    public int decrementQuantity(int id, int quantity) {
+        return jdbcTemplate.update("UPDATE product SET quantity = quantity - ?, version = version + 1 " +
+                "WHERE id = ? AND quantity >= ?", quantity, id, quantity);
+    }
+
+    public int deleteById(int id) {
+        return jdbcTemplate.update("DELETE FROM product WHERE id = ?", id);
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM product");
+    }
+
+    public List<QuantityCount> countByQuantity() {
+        return jdbcTemplate.query("SELECT quantity, COUNT(*) AS products FROM product GROUP BY quantity",
+                (rs, row) -> QuantityCount.of((Integer) rs.getObject("quantity"), rs.getLong("products")));
+    }
+
+    public long count() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product", Long.class);
+    }
+}
@@ -0,0 +1,25 @@
+package edu.tdd.example.repositories.sharding;
+
+/**
+ * Assigns consecutive ranges of range-size ids to consecutive shards.
+ * Ids below zero go to the first shard, ids past the last range to the last one.
+ */
+public class RangeShardRouter implements ShardRouter {
+
+    private final int shards;
+
+    private final int rangeSize;
+
+    public RangeShardRouter(int shards, int rangeSize) {
+        this.shards = shards;
+        this.rangeSize = rangeSize;
+    }
+
+    @Override
+    public int shardFor(int id) {
+        if(id < 0) {
+            return 0;
+        }
+        return Math.min(id / rangeSize, shards - 1);
+    }
+}
@@ -0,0 +1,14 @@
+package edu.tdd.example.repositories.sharding;
+
+/**
+ * Decides which shard owns a product id.
+ */
+public interface ShardRouter {
+
+    /**
+     * Gets the shard owning the given id
+     * @param id product id
+     * @return shard index between 0 and shards - 1
+     */
+    int shardFor(int id);
+}
@@ -0,0 +1,184 @@
+package edu.tdd.example.repositories.sharding;
+
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.repositories.ProductRepository;
+import edu.tdd.example.repositories.QuantityCount;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Product repository spread over several shards.
+ *
+ * Point operations go to the one shard owning the id. Listings and counts fan out
+ * to all shards in parallel and merge the per-shard results, sorted by id.
+ */
+public class ShardedProductRepository implements ProductRepository {
+
+    private final List<ProductShard> shards;
+
+    private final ShardRouter router;
+
+    private final Executor fanOutExecutor;
+
+    public ShardedProductRepository(List<ProductShard> shards, ShardRouter router, Executor fanOutExecutor) {
+        this.shards = shards;
+        this.router = router;
+        this.fanOutExecutor = fanOutExecutor;
+    }
+
+    @Override
+    public Product findProductById(Integer id) {
+        return id == null ? null : shardFor(id).findById(id);
+    }
+
+    @Override
+    public <S extends Product> S save(S product) {
+        if(product.getId() == null) {
+            throw new IllegalArgumentException("Sharded products need a client assigned id");
+        }
+        shardFor(product.getId()).upsert(product);
+        return product;
+    }
+
+    @Override
+    public <S extends Product> Iterable<S> saveAll(Iterable<S> products) {
+        List<S> saved = new ArrayList<>();
+        products.forEach(product -> saved.add(save(product)));
+        return saved;
+    }
+
+    @Override
+    public Optional<Product> findById(Integer id) {
+        return Optional.ofNullable(findProductById(id));
+    }
+
+    @Override
+    public boolean existsById(Integer id) {
+        return findProductById(id) != null;
+    }
+
+    @Override
+    public Iterable<Product> findAll() {
+        return mergeById(fanOut(ProductShard::findAll));
+    }
+
+    @Override
+    public Iterable<Product> findAllById(Iterable<Integer> ids) {
+        return StreamSupport.stream(ids.spliterator(), false)
+                .map(this::findProductById)
+                .filter(product -> product != null)
+                .sorted(Comparator.comparing(Product::getId))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<QuantityCount> countByQuantity() {
+        Map<Integer, Long> products = new HashMap<>();
+        fanOut(ProductShard::countByQuantity).forEach(counts -> counts.forEach(
+                count -> products.merge(count.getQuantity(), count.getProducts(), Long::sum)));
+        return products.entrySet().stream()
+                .map(entry -> QuantityCount.of(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int decrementQuantity(Integer id, int quantity) {
+        return shardFor(id).decrementQuantity(id, quantity);
+    }
+
+    @Override
+    public long count() {
+        return fanOut(ProductShard::count).stream().mapToLong(Long::longValue).sum();
+    }
+
+    @Override
+    public void deleteById(Integer id) {
+        if(shardFor(id).deleteById(id) == 0) {
+            throw new EmptyResultDataAccessException("No product with id " + id + " exists!", 1);
+        }
+    }
+
+    @Override
+    public void delete(Product product) {
+        shardFor(product.getId()).deleteById(product.getId());
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends Product> products) {
+        products.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        fanOut(shard -> {
+            shard.deleteAll();
+            return null;
+        });
+    }
+
+    private ProductShard shardFor(int id) {
+        return shards.get(router.shardFor(id));
+    }
+
+    private <T> List<T> fanOut(Function<ProductShard, T> query) {
+        List<CompletableFuture<T>> results = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), fanOutExecutor))
+                .collect(Collectors.toList());
+        return results.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    }
+
+    /**
+     * k-way merge of per-shard lists that are each sorted by id
+     */
+    private static List<Product> mergeById(List<List<Product>> sortedLists) {
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Comparator.comparing(cursor -> cursor.current().getId()));
+        int total = 0;
+        for(List<Product> list : sortedLists) {
+            total += list.size();
+            if(!list.isEmpty()) {
+                heads.add(new Cursor(list));
+            }
+        }
+
+        List<Product> merged = new ArrayList<>(total);
+        while(!heads.isEmpty()) {
+            Cursor cursor = heads.poll();
+            merged.add(cursor.current());
+            if(cursor.advance()) {
+                heads.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private static final class Cursor {
+
+        private final List<Product> products;
+
+        private int position;
+
+        Cursor(List<Product> products) {
+            this.products = products;
+        }
+
+        Product current() {
+            return products.get(position);
+        }
+
+        boolean advance() {
+            return ++position < products.size();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package edu.tdd.example.repositories.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import edu.tdd.example.repositories.ProductRepository;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the JPA product repository by a sharded one when the sharded profile is active.
+ *
+ * The shard pools and the fan-out executor are owned here rather than exposed as beans,
+ * so they do not replace the application's default data source or task executor.
+ */
+@Profile("sharded")
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfiguration implements DisposableBean {
+
+    private final List<HikariDataSource> shardDataSources = new ArrayList<>();
+
+    private final ThreadPoolTaskExecutor fanOutExecutor = new ThreadPoolTaskExecutor();
+
+    @Bean
+    @Primary
+    public ProductRepository shardedProductRepository(ShardingProperties properties) {
+        fanOutExecutor.setCorePoolSize(properties.getFanOutThreads());
+        fanOutExecutor.setMaxPoolSize(properties.getFanOutThreads());
+        fanOutExecutor.setThreadNamePrefix("shard-fan-out-");
+        fanOutExecutor.initialize();
+
+        List<ProductShard> shards = new ArrayList<>();
+        for(int shard = 0; shard < properties.getShards(); shard++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(String.format(properties.getUrlTemplate(), shard))
+                    .username(properties.getUsername())
+                    .password(properties.getPassword())
+                    .build();
+            dataSource.setPoolName("products-shard-" + shard);
+            dataSource.setMaximumPoolSize(properties.getPoolSizePerShard());
+            shardDataSources.add(dataSource);
+            shards.add(new ProductShard(dataSource));
+        }
+        return new ShardedProductRepository(shards, router(properties), fanOutExecutor);
+    }
+
+    @Override
+    public void destroy() {
+        fanOutExecutor.shutdown();
+        shardDataSources.forEach(HikariDataSource::close);
+    }
+
+    private static ShardRouter router(ShardingProperties properties) {
+        switch (properties.getStrategy()) {
+            case RANGE:
+                return new RangeShardRouter(properties.getShards(), properties.getRangeSize());
+            case HASH:
+            default:
+                return new HashShardRouter(properties.getShards());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package edu.tdd.example.repositories.sharding;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("products.sharding")
+public class ShardingProperties {
+
+    public enum Strategy { HASH, RANGE }
+
+    private int shards = 4;
+
+    private Strategy strategy = Strategy.HASH;
+
+    /**
+     * Ids per shard when routing by range
+     */
+    private int rangeSize = 1_000_000;
+
+    /**
+     * JDBC url of each shard, %d is replaced by the shard index
+     */
+    private String urlTemplate = "jdbc:h2:mem:products-shard-%d;DB_CLOSE_DELAY=-1";
+
+    private String username = "sa";
+
+    private String password = "";
+
+    private int poolSizePerShard = 5;
+
+    /**
+     * Threads running the per-shard queries of fan-out operations
+     */
+    private int fanOutThreads = 8;
+}
@@ -0,0 +1,12 @@
+package edu.tdd.example.reservations;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InsufficientStockException extends RuntimeException {
+
+    public InsufficientStockException(Integer productId, int quantity) {
+        super("Product with id " + productId + " has less than " + quantity + " items available");
+    }
+}
@@ -0,0 +1,29 @@
+package edu.tdd.example.reservations;
+
+import edu.tdd.example.services.ProductService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+
+import java.time.Clock;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(ReservationProperties.class)
+public class ReservationConfiguration {
+
+    @Bean
+    public ReservationService reservationService(ReservationProperties properties, ProductService productService) {
+        return new ReservationService(productService, properties.getTtl(), Clock.systemUTC());
+    }
+
+    @Bean
+    public SchedulingConfigurer reservationTasks(ReservationProperties properties, ReservationService reservationService) {
+        return registrar -> {
+            registrar.addFixedDelayTask(reservationService::expire, properties.getSweepInterval().toMillis());
+            registrar.addFixedDelayTask(reservationService::flush, properties.getFlushInterval().toMillis());
+        };
+    }
+}
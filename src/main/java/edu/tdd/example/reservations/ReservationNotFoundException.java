@@ -0,0 +1,12 @@
+package edu.tdd.example.reservations;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ReservationNotFoundException extends RuntimeException {
+
+    public ReservationNotFoundException(String reservationId) {
+        super("Reservation '" + reservationId + "' does not exist, expired or was already committed or released");
+    }
+}
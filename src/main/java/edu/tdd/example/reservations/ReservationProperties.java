@@ -0,0 +1,27 @@
+package edu.tdd.example.reservations;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("products.reservations")
+public class ReservationProperties {
+
+    /**
+     * How long stock is held before an uncommitted reservation is released
+     */
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * How often expired reservations are released
+     */
+    private Duration sweepInterval = Duration.ofSeconds(1);
+
+    /**
+     * How often committed stock is written to the products, in one update per product.
+     * Commits wait for the next write, so this bounds the latency they add
+     */
+    private Duration flushInterval = Duration.ofMillis(100);
+}
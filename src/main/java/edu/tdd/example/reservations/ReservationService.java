@@ -0,0 +1,291 @@
+package edu.tdd.example.reservations;
+
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.domain.Reservation;
+import edu.tdd.example.events.ProductChangedEvent;
+import edu.tdd.example.invalidation.ProductInvalidation;
+import edu.tdd.example.services.ProductService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds product stock for checkouts in memory, so bursts on a hot product do not
+ * serialise on its row or conflict on its version.
+ *
+ * Reserving takes stock from a per product {@link StockLedger} and can never take more
+ * than the ledger knows the product has. Commits are group committed: each waits for the
+ * next flush, which writes all commits of a product with one guarded update, and is only
+ * confirmed once that update succeeded. The guard in the database is what prevents
+ * overselling when several instances hold ledgers of the same product; a commit it rejects
+ * fails with insufficient stock instead of being lost. Released and expired reservations
+ * only return stock to the ledger, as it never left the product.
+ *
+ * Ledgers follow the changes made here and re-read a product when another instance
+ * announces a newer version of it, so they converge on the stored stock.
+ */
+@Slf4j
+public class ReservationService {
+
+    private final Map<Integer, StockLedger> ledgers = new ConcurrentHashMap<>();
+
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+
+    private final ProductService productService;
+
+    private final Duration ttl;
+
+    private final Clock clock;
+
+    public ReservationService(ProductService productService, Duration ttl, Clock clock) {
+        this.productService = productService;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Holds stock of a product until the TTL passes
+     * @param productId product to reserve
+     * @param quantity to reserve, positive
+     * @return the reservation, null if the product does not exist
+     * @throws InsufficientStockException if less stock is available
+     */
+    public Reservation reserve(Integer productId, int quantity) {
+        StockLedger ledger = ledger(productId);
+        if(ledger == null) {
+            return null;
+        }
+        if(!ledger.tryReserve(quantity)) {
+            throw new InsufficientStockException(productId, quantity);
+        }
+        Reservation reservation = new Reservation(UUID.randomUUID().toString(), productId, quantity, clock.instant().plus(ttl));
+        holds.put(reservation.getId(), new Hold(reservation, ledger));
+        return reservation;
+    }
+
+    /**
+     * Turns a reservation into a sale, returning once the next flush wrote it to the product
+     * @throws ReservationNotFoundException if the reservation expired, was already committed or released,
+     *          or the product was deleted
+     * @throws InsufficientStockException if the product has less stock than reserved, e.g. sold by another instance
+     */
+    public Reservation commit(Integer productId, String reservationId) {
+        Hold hold = remove(productId, reservationId);
+        Reservation reservation = hold.reservation;
+        CompletableFuture<Boolean> written = hold.ledger.commit(reservation.getQuantity());
+        if(written == null || !await(written)) {
+            if(hold.ledger.isClosed()) {
+                // the product was deleted meanwhile
+                throw new ReservationNotFoundException(reservationId);
+            }
+            throw new InsufficientStockException(productId, reservation.getQuantity());
+        }
+        return reservation;
+    }
+
+    /**
+     * Gives the stock of a reservation back
+     * @throws ReservationNotFoundException if the reservation expired or was already committed or released
+     */
+    public Reservation release(Integer productId, String reservationId) {
+        Hold hold = remove(productId, reservationId);
+        hold.ledger.release(hold.reservation.getQuantity());
+        return hold.reservation;
+    }
+
+    /**
+     * Releases the reservations past their TTL
+     */
+    public void expire() {
+        Instant now = clock.instant();
+        holds.values().forEach(hold -> {
+            Reservation reservation = hold.reservation;
+            if(reservation.getExpiresAt().isBefore(now) && holds.remove(reservation.getId(), hold)) {
+                log.debug("Reservation {} of product {} expired", reservation.getId(), reservation.getProductId());
+                hold.ledger.release(reservation.getQuantity());
+            }
+        });
+    }
+
+    /**
+     * Writes the waiting commits to the products, one update per product,
+     * and forgets the ledgers of deleted products
+     */
+    @PreDestroy
+    public void flush() {
+        ledgers.forEach((productId, ledger) -> {
+            // read before draining, a commit queued after a close is failed by the committing thread
+            boolean closed = ledger.isClosed();
+            List<StockLedger.PendingCommit> commits = ledger.drainPending();
+            if(closed) {
+                commits.forEach(commit -> ledger.complete(commit, false));
+                ledgers.remove(productId, ledger);
+            } else if(!commits.isEmpty()) {
+                write(productId, ledger, commits);
+            }
+        });
+    }
+
+    /**
+     * Gets the stock left to reserve
+     * @param productId of the product
+     * @return available quantity, null if no reservation was made for the product yet
+     */
+    public Integer getAvailable(Integer productId) {
+        StockLedger ledger = ledgers.get(productId);
+        return ledger != null ? ledger.getAvailable() : null;
+    }
+
+    /**
+     * Gets the commits waiting for the next flush
+     * @param productId of the product
+     * @return number of waiting commits, 0 if no reservation was made for the product yet
+     */
+    public int getPendingCommits(Integer productId) {
+        StockLedger ledger = ledgers.get(productId);
+        return ledger != null ? ledger.getPendingCommits() : 0;
+    }
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        StockLedger ledger = event.getProductId() != null ? ledgers.get(event.getProductId()) : null;
+        if(ledger == null) {
+            return;
+        }
+        if(event.getType() == ProductChangedEvent.Type.DELETED) {
+            close(event.getProductId(), ledger);
+        } else {
+            ledger.observe(event.getAfter());
+        }
+    }
+
+    /**
+     * Follows the writes of other instances, read from the primary with the next reservation
+     */
+    @EventListener
+    public void onInvalidation(ProductInvalidation invalidation) {
+        StockLedger ledger = ledgers.get(invalidation.getProductId());
+        if(ledger == null) {
+            return;
+        }
+        if(invalidation.isDeleted()) {
+            close(invalidation.getProductId(), ledger);
+        } else {
+            ledger.announce(invalidation.getVersion());
+        }
+    }
+
+    /**
+     * Gets the ledger of a product, reading the product if the ledger is new or stale.
+     * The read runs outside the map, its result only replaces an older state
+     * @return null if the product does not exist
+     */
+    private StockLedger ledger(Integer productId) {
+        while(true) {
+            StockLedger ledger = ledgers.computeIfAbsent(productId, id -> new StockLedger());
+            if(ledger.isClosed()) {
+                // deleted, the id may have been reused since
+                ledgers.remove(productId, ledger);
+                continue;
+            }
+            if(!ledger.needsRefresh()) {
+                return ledger;
+            }
+            Product product = productService.findByIdOnPrimary(productId);
+            if(product != null) {
+                ledger.observe(product);
+                return ledger;
+            }
+            if(ledger.isLoaded()) {
+                close(productId, ledger);
+            } else {
+                ledgers.remove(productId, ledger);
+            }
+            return null;
+        }
+    }
+
+    private void write(Integer productId, StockLedger ledger, List<StockLedger.PendingCommit> commits) {
+        int quantity = commits.stream().mapToInt(commit -> commit.quantity).sum();
+        try {
+            Product product = productService.decrementQuantity(productId, quantity);
+            if(product != null) {
+                ledger.observe(product);
+                commits.forEach(commit -> ledger.complete(commit, true));
+                return;
+            }
+            // the product has less stock than this instance knew of, write the commits one by one
+            log.warn("Committed stock of {} could not be taken from product {} at once, writing {} commits one by one",
+                    quantity, productId, commits.size());
+            for(StockLedger.PendingCommit commit : commits) {
+                product = productService.decrementQuantity(productId, commit.quantity);
+                if(product != null) {
+                    ledger.observe(product);
+                }
+                ledger.complete(commit, product != null);
+            }
+            // another instance or an update took stock this ledger still counts
+            Product stored = productService.findByIdOnPrimary(productId);
+            if(stored != null) {
+                ledger.observe(stored);
+            } else {
+                close(productId, ledger);
+            }
+        } catch(RuntimeException e) {
+            log.warn("Could not write committed stock of product {}", productId, e);
+            commits.stream()
+                    .filter(commit -> !commit.written.isDone())
+                    .forEach(commit -> ledger.fail(commit, e));
+        }
+    }
+
+    private void close(Integer productId, StockLedger ledger) {
+        ledger.close();
+        ledgers.remove(productId, ledger);
+    }
+
+    private static boolean await(CompletableFuture<Boolean> written) {
+        try {
+            return written.join();
+        } catch(CompletionException e) {
+            if(e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private Hold remove(Integer productId, String reservationId) {
+        Hold hold = holds.get(reservationId);
+        if(hold == null || !hold.reservation.getProductId().equals(productId)
+                || !holds.remove(reservationId, hold)) {
+            throw new ReservationNotFoundException(reservationId);
+        }
+        return hold;
+    }
+
+    /**
+     * A reservation with the ledger its stock was taken from
+     */
+    private static final class Hold {
+
+        private final Reservation reservation;
+
+        private final StockLedger ledger;
+
+        Hold(Reservation reservation, StockLedger ledger) {
+            this.reservation = reservation;
+            this.ledger = ledger;
+        }
+    }
+}
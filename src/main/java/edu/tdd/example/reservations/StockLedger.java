@@ -0,0 +1,187 @@
+package edu.tdd.example.reservations;
+
+import edu.tdd.example.domain.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory stock of one product: the stored quantity at the newest version seen, and what
+ * this instance has taken from it for held reservations and commits not yet written.
+ * Lock-free, so checkouts of a hot product never queue.
+ *
+ * The stored quantity is replaced rather than adjusted, and only by a newer version, so
+ * changes can be observed late, twice or out of order without miscounting.
+ */
+class StockLedger {
+
+    private final AtomicReference<Stored> stored = new AtomicReference<>();
+
+    /**
+     * Held reservations and commits not yet written to the product
+     */
+    private final AtomicInteger taken = new AtomicInteger();
+
+    /**
+     * Newest version announced for the product, possibly by another instance
+     */
+    private final AtomicInteger announcedVersion = new AtomicInteger(Integer.MIN_VALUE);
+
+    private final Queue<PendingCommit> pending = new ConcurrentLinkedQueue<>();
+
+    private volatile boolean closed;
+
+    /**
+     * @return true if the product has to be read, as the ledger was never loaded or a newer version was announced
+     */
+    boolean needsRefresh() {
+        Stored current = stored.get();
+        return current == null || announcedVersion.get() > current.version;
+    }
+
+    boolean isLoaded() {
+        return stored.get() != null;
+    }
+
+    /**
+     * Follows a state of the product read or written, ignored if a newer one was already seen
+     */
+    void observe(Product product) {
+        Stored next = new Stored(product.getVersion() != null ? product.getVersion() : 0,
+                product.getQuantity() != null ? product.getQuantity() : 0);
+        announce(next.version);
+        Stored current;
+        do {
+            current = stored.get();
+            if(current != null && current.version >= next.version) {
+                return;
+            }
+        } while(!stored.compareAndSet(current, next));
+    }
+
+    /**
+     * Notes a version written elsewhere, read with the next {@link #needsRefresh}
+     */
+    void announce(int version) {
+        announcedVersion.accumulateAndGet(version, Math::max);
+    }
+
+    /**
+     * Holds stock, never more than available
+     * @param quantity to hold
+     * @return false if less is available or the product was deleted
+     */
+    boolean tryReserve(int quantity) {
+        while(true) {
+            // taken first: writes lower the stored quantity before giving back what they had taken
+            int current = taken.get();
+            Stored product = stored.get();
+            if(closed || product == null || product.quantity - current < quantity) {
+                return false;
+            }
+            if(taken.compareAndSet(current, current + quantity)) {
+                return true;
+            }
+        }
+    }
+
+    void release(int quantity) {
+        taken.addAndGet(-quantity);
+    }
+
+    /**
+     * Queues held stock for the next write to the product
+     * @return completed with true once written, false if the product has less stock or was deleted;
+     *          null if the product was already deleted
+     */
+    CompletableFuture<Boolean> commit(int quantity) {
+        if(closed) {
+            return null;
+        }
+        PendingCommit commit = new PendingCommit(quantity);
+        pending.add(commit);
+        // closed meanwhile, unless the closing drain already took the commit and fails it
+        if(closed && pending.remove(commit)) {
+            return null;
+        }
+        return commit.written;
+    }
+
+    /**
+     * Takes the queued commits to write to the product
+     */
+    List<PendingCommit> drainPending() {
+        List<PendingCommit> commits = new ArrayList<>();
+        PendingCommit commit;
+        while((commit = pending.poll()) != null) {
+            commits.add(commit);
+        }
+        return commits;
+    }
+
+    /**
+     * Completes a commit, its stock is no longer held either way
+     * @param written true if it was taken from the product
+     */
+    void complete(PendingCommit commit, boolean written) {
+        taken.addAndGet(-commit.quantity);
+        commit.written.complete(written);
+    }
+
+    void fail(PendingCommit commit, Throwable cause) {
+        taken.addAndGet(-commit.quantity);
+        commit.written.completeExceptionally(cause);
+    }
+
+    /**
+     * Marks the product deleted, failing the commits not yet written
+     */
+    void close() {
+        closed = true;
+        drainPending().forEach(commit -> complete(commit, false));
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    int getPendingCommits() {
+        return pending.size();
+    }
+
+    /**
+     * @return stock left to reserve, null if never loaded
+     */
+    Integer getAvailable() {
+        Stored product = stored.get();
+        return product != null ? product.quantity - taken.get() : null;
+    }
+
+    static final class PendingCommit {
+
+        final int quantity;
+
+        final CompletableFuture<Boolean> written = new CompletableFuture<>();
+
+        PendingCommit(int quantity) {
+            this.quantity = quantity;
+        }
+    }
+
+    private static final class Stored {
+
+        final int version;
+
+        final int quantity;
+
+        Stored(int version, int quantity) {
+            this.version = version;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -1,10 +1,24 @@
 package edu.tdd.example.services;
 
+import edu.tdd.example.bulkhead.ProductBulkheads;
 import edu.tdd.example.domain.Product;
+import edu.tdd.example.events.ProductChangedEvent;
+import edu.tdd.example.replicas.ReadReplicaRouter;
 import edu.tdd.example.repositories.ProductRepository;
+import edu.tdd.example.repositories.QuantityCount;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -13,44 +27,161 @@ public class ProductService {
 
     private ProductRepository productRepository;
 
+    private ProductBulkheads bulkheads;
+
+    private ReadReplicaRouter readReplicaRouter;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Tickets of the writes running now, in start order
+     */
+    private final ConcurrentSkipListSet<Long> writesInFlight = new ConcurrentSkipListSet<>();
+
+    private final AtomicLong writeTickets = new AtomicLong();
+
     public Product save(Product product){
         log.debug("Saving new product with name: {}",product.getName());
-        product.setVersion(1);
-        return productRepository.save(product);
+        ProductChangedEvent event = write(() -> {
+            Product existingProduct = product.getId() != null ? productRepository.findProductById(product.getId()) : null;
+            // snapshot first, saving merges into the loaded instance
+            Product before = existingProduct != null ? existingProduct.copy() : null;
+            // versions only grow, also when a product is saved again under an existing id
+            product.setVersion(before != null && before.getVersion() != null ? before.getVersion() + 1 : 1);
+            Product savedProduct = productRepository.save(product);
+            return savedProduct != null ? ProductChangedEvent.saved(before, savedProduct) : null;
+        });
+        return event != null ? event.getAfter() : null;
     }
 
     public Product update(Product product){
         log.debug("Updating new product with id: {}",product.getId());
-        Product existingProduct = productRepository.findProductById(product.getId());
-
-        if(existingProduct != null) {
-            existingProduct.setQuantity(product.getQuantity());
-            existingProduct.setDescription(product.getDescription());
-            existingProduct.setName(product.getName());
-            existingProduct = productRepository.save(existingProduct);
-        } else {
-            log.error("Product with id {} could not be updated!",product.getId());
-        }
-        return existingProduct;
+        ProductChangedEvent event = write(() -> {
+            Product existingProduct = productRepository.findProductById(product.getId());
+
+            if(existingProduct != null) {
+                Product before = existingProduct.copy();
+                existingProduct.setQuantity(product.getQuantity());
+                existingProduct.setDescription(product.getDescription());
+                existingProduct.setName(product.getName());
+                return ProductChangedEvent.saved(before, productRepository.save(existingProduct));
+            } else {
+                log.error("Product with id {} could not be updated!",product.getId());
+                return null;
+            }
+        });
+        return event != null ? event.getAfter() : null;
     }
 
     public Product findById(Integer id){
         log.debug("Retrieving product with id: {}", id);
 
-        return productRepository.findProductById(id);
+        return bulkheads.getPointReads().execute(() ->
+                readReplicaRouter.findById(id, productRepository::findProductById));
+    }
+
+    /**
+     * Reads a product from the primary, for the preconditions of writes. A lagging replica could
+     * pass them with a version already overwritten by another instance
+     * @param id product id
+     * @return the product or null if not found
+     */
+    public Product findByIdOnPrimary(Integer id){
+        log.debug("Retrieving product with id: {} from the primary", id);
+
+        return bulkheads.getPointReads().execute(() -> productRepository.findProductById(id));
     }
 
     public void delete(Integer id){
         log.debug("deleting product with id: {}", id);
 
-        Product existingProduct = productRepository.findProductById(id);
+        write(() -> {
+            Product existingProduct = productRepository.findProductById(id);
+
+            if(existingProduct != null) {
+                Product before = existingProduct.copy();
+                productRepository.deleteById(id);
+                return ProductChangedEvent.deleted(before);
+            } else {
+                log.error("Product with id {} could not be found!",id);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Takes the stock of committed reservations out of a product
+     * @param id of the product
+     * @param quantity to take
+     * @return the product with the stock taken, null if the product is missing or has less stock than requested
+     */
+    public Product decrementQuantity(Integer id, int quantity){
+        log.debug("Decrementing quantity of product with id: {} by {}", id, quantity);
+        ProductChangedEvent event = write(() -> {
+            if(productRepository.decrementQuantity(id, quantity) == 0) {
+                log.debug("Product with id {} could not be decremented by {}", id, quantity);
+                return null;
+            }
+            // the guarded update is the source of truth, derive the previous state from it
+            Product after = productRepository.findProductById(id);
+            Product before = after.copy();
+            before.setQuantity(after.getQuantity() + quantity);
+            before.setVersion(after.getVersion() - 1);
+            return ProductChangedEvent.stockCommitted(before, after);
+        });
+        return event != null ? event.getAfter() : null;
+    }
 
-        if(existingProduct != null) {
-            productRepository.deleteById(id);
-        } else {
-            log.error("Product with id {} could not be found!",id);
+    public Iterable<Product> findAll(){
+        return bulkheads.getScans().execute(() -> readReplicaRouter.findAll(productRepository::findAll));
+    }
+
+    /**
+     * Aggregates the stock distribution in the database
+     * @return number of products per distinct quantity
+     */
+    public List<QuantityCount> countByQuantity(){
+        return bulkheads.getScans().execute(() -> readReplicaRouter.findAll(productRepository::countByQuantity));
+    }
+
+    /**
+     * Waits until the writes running now in this instance have ended,
+     * writes started later or by other instances are not waited for
+     * @param timeout longest time to wait
+     * @return false if they did not end in time
+     */
+    public boolean awaitWritesInFlight(Duration timeout){
+        long horizon = writeTickets.get();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Long oldest;
+        while((oldest = writesInFlight.ceiling(0L)) != null && oldest <= horizon) {
+            if(System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
         }
+        return true;
     }
 
-    public Iterable<Product> findAll(){ return productRepository.findAll(); }
+    /**
+     * Runs a write in one short transaction inside the writes bulkhead
+     * and publishes the resulting change once it is committed
+     */
+    private ProductChangedEvent write(Supplier<ProductChangedEvent> change) {
+        ProductChangedEvent event = bulkheads.getWrites().execute(() -> {
+            long ticket = writeTickets.incrementAndGet();
+            writesInFlight.add(ticket);
+            try {
+                return transactionTemplate.execute(status -> change.get());
+            } finally {
+                writesInFlight.remove(ticket);
+            }
+        });
+        if(event != null) {
+            eventPublisher.publishEvent(event);
+        }
+        return event;
+    }
 }
@@ -0,0 +1,26 @@
+package edu.tdd.example.services;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+@Data
+@ConfigurationProperties("products.stats")
+public class ProductStatsProperties {
+
+    private int lowStockThreshold = 5;
+
+    /**
+     * Lower bounds of the quantity distribution buckets, ascending
+     */
+    private List<Integer> distributionBounds = Arrays.asList(0, 1, 10, 100, 1000);
+
+    /**
+     * Age after which the incrementally maintained stats are reloaded from the database,
+     * picking up changes made by other instances; zero reloads them on every read
+     */
+    private Duration maxAge = Duration.ofMinutes(1);
+}
@@ -0,0 +1,213 @@
+package edu.tdd.example.services;
+
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.domain.ProductStats;
+import edu.tdd.example.events.ProductChangedEvent;
+import edu.tdd.example.repositories.QuantityCount;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps stock statistics without scanning products.
+ *
+ * The number of products per distinct quantity is loaded with one aggregate query,
+ * then kept current from product change events. Stats are derived from that histogram
+ * and cached until the next change. Changes made by other instances are picked up by
+ * the next reload after max-age.
+ *
+ * Reloads query outside the lock, so changes are never held up by one. Changes are numbered
+ * as they arrive; a reload counts those that arrived before its query started and replays the
+ * later ones on its result before swapping it in. A change committed just before the query but
+ * published after it started is counted twice until the next reload.
+ */
+@Slf4j
+@Service
+@EnableConfigurationProperties(ProductStatsProperties.class)
+public class ProductStatsService {
+
+    private final ProductService productService;
+
+    private final ProductStatsProperties properties;
+
+    private final Clock clock = Clock.systemUTC();
+
+    private Histogram histogram;
+
+    private long loadedAt;
+
+    /**
+     * Number of the last change received
+     */
+    private long changes;
+
+    /**
+     * Change the current histogram was loaded after
+     */
+    private long loadedAfter = -1;
+
+    private int reloads;
+
+    /**
+     * Changes received while reloads run, replayed on their results
+     */
+    private final List<ProductChangedEvent> changesDuringReloads = new ArrayList<>();
+
+    private ProductStats cachedStats;
+
+    public ProductStatsService(ProductService productService, ProductStatsProperties properties) {
+        this.productService = productService;
+        this.properties = properties;
+    }
+
+    public ProductStats getStats() {
+        synchronized(this) {
+            // while a reload runs the current stats are served
+            if(histogram != null && (reloads > 0 || clock.millis() - loadedAt < properties.getMaxAge().toMillis())) {
+                return stats();
+            }
+        }
+        reload();
+        synchronized(this) {
+            return stats();
+        }
+    }
+
+    @EventListener
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        changes++;
+        if(reloads > 0) {
+            changesDuringReloads.add(event);
+        }
+        if(histogram != null) {
+            histogram.apply(event);
+            cachedStats = null;
+        }
+    }
+
+    private void reload() {
+        long after;
+        synchronized(this) {
+            after = changes;
+            reloads++;
+        }
+        Histogram loaded = null;
+        try {
+            loaded = load();
+        } finally {
+            synchronized(this) {
+                reloads--;
+                // a slower reload started before the current histogram was loaded is older than it
+                if(loaded != null && after >= loadedAfter) {
+                    int counted = changesDuringReloads.size() - (int) (changes - after);
+                    changesDuringReloads.subList(counted, changesDuringReloads.size()).forEach(loaded::apply);
+                    histogram = loaded;
+                    loadedAfter = after;
+                    loadedAt = clock.millis();
+                    cachedStats = null;
+                }
+                if(reloads == 0) {
+                    changesDuringReloads.clear();
+                }
+            }
+        }
+    }
+
+    private Histogram load() {
+        log.debug("Loading product stock distribution");
+        Histogram loaded = new Histogram();
+        for(QuantityCount count : productService.countByQuantity()) {
+            if(count.getQuantity() == null) {
+                loaded.nullQuantities += count.getProducts();
+            } else {
+                loaded.productsByQuantity.put(count.getQuantity(), count.getProducts());
+            }
+        }
+        return loaded;
+    }
+
+    private ProductStats stats() {
+        if(cachedStats == null) {
+            cachedStats = compute();
+        }
+        return cachedStats;
+    }
+
+    private ProductStats compute() {
+        List<Integer> bounds = properties.getDistributionBounds();
+        long[] buckets = new long[bounds.size()];
+        long products = histogram.nullQuantities;
+        long totalQuantity = 0;
+        long lowStock = 0;
+        long outOfStock = 0;
+
+        for(Map.Entry<Integer, Long> entry : histogram.productsByQuantity.entrySet()) {
+            int quantity = entry.getKey();
+            long count = entry.getValue();
+            products += count;
+            totalQuantity += quantity * count;
+            if(quantity <= properties.getLowStockThreshold()) {
+                lowStock += count;
+            }
+            if(quantity <= 0) {
+                outOfStock += count;
+            }
+            buckets[bucketOf(quantity, bounds)] += count;
+        }
+
+        List<ProductStats.QuantityBucket> distribution = new ArrayList<>(bounds.size());
+        for(int bucket = 0; bucket < bounds.size(); bucket++) {
+            Integer max = bucket + 1 < bounds.size() ? bounds.get(bucket + 1) - 1 : null;
+            distribution.add(new ProductStats.QuantityBucket(bounds.get(bucket), max, buckets[bucket]));
+        }
+        return new ProductStats(products, totalQuantity, properties.getLowStockThreshold(), lowStock, outOfStock, distribution);
+    }
+
+    /**
+     * Last bucket whose lower bound is at or below the quantity, the first one for anything lower
+     */
+    private static int bucketOf(int quantity, List<Integer> bounds) {
+        int bucket = 0;
+        while(bucket + 1 < bounds.size() && bounds.get(bucket + 1) <= quantity) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    /**
+     * Number of products per distinct quantity
+     */
+    private static final class Histogram {
+
+        private final TreeMap<Integer, Long> productsByQuantity = new TreeMap<>();
+
+        private long nullQuantities;
+
+        void apply(ProductChangedEvent event) {
+            if(event.getBefore() != null) {
+                add(event.getBefore(), -1);
+            }
+            if(event.getAfter() != null) {
+                add(event.getAfter(), 1);
+            }
+        }
+
+        private void add(Product product, long products) {
+            if(product.getQuantity() == null) {
+                nullQuantities += products;
+            } else {
+                productsByQuantity.merge(product.getQuantity(), products, (current, delta) -> {
+                    long updated = current + delta;
+                    return updated == 0 ? null : updated;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package edu.tdd.example.snapshots;
+
+import edu.tdd.example.bulkhead.ProductBulkheads;
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.domain.ProductSnapshot;
+import edu.tdd.example.domain.ProductSnapshotPage;
+import edu.tdd.example.services.ProductService;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.envers.AuditReader;
+import org.hibernate.envers.AuditReaderFactory;
+import org.hibernate.envers.query.AuditEntity;
+import org.hibernate.envers.query.AuditQuery;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Pages through the catalogue as of a point in time.
+ *
+ * The snapshot token is the last product revision recorded by the product history, so tokens
+ * hold no server state and work on any instance. Each page is one short read-only query of the
+ * history at that revision, keyset paged by id, so no transaction or lock spans the listing.
+ *
+ * Revisions are numbered when a write flushes, before it commits, so a write holding a lower
+ * revision than the token can still commit into the snapshot. Taking a snapshot waits for the
+ * writes in flight in this instance only; writes of other instances are not waited for, and
+ * one committing late can appear between two pages of a snapshot taken meanwhile.
+ *
+ * Only the JPA repository records the product history, so there is no snapshot service
+ * with the sharded or in-memory repositories.
+ */
+@Slf4j
+@Service
+@Profile("!sharded & !inmemory")
+@EnableConfigurationProperties(SnapshotProperties.class)
+public class ProductSnapshotService {
+
+    private final ProductService productService;
+
+    private final ProductBulkheads bulkheads;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final SnapshotProperties properties;
+
+    public ProductSnapshotService(ProductService productService, ProductBulkheads bulkheads, EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager, SnapshotProperties properties) {
+        this.productService = productService;
+        this.bulkheads = bulkheads;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+    }
+
+    /**
+     * Takes a snapshot of the catalogue as committed now
+     * @return snapshot to page through
+     * @throws SnapshotUnavailableException if writes in progress did not end in time
+     */
+    public ProductSnapshot createSnapshot() {
+        int revision = read(this::currentRevision);
+        // writes of this instance holding a revision up to the token started before this point;
+        // waiting for them keeps them from committing into the snapshot between two of its pages
+        if(!productService.awaitWritesInFlight(properties.getWriteWaitTimeout())) {
+            throw new SnapshotUnavailableException();
+        }
+        log.debug("Created product snapshot at revision {}", revision);
+        return new ProductSnapshot(revision);
+    }
+
+    /**
+     * Gets a page of products as of a snapshot
+     * @param token of the snapshot
+     * @param after id of the last product of the previous page, null for the first page
+     * @param size of the page, null for the default size, capped at the maximum size
+     * @return products with ids after the given one, ordered by id
+     * @throws SnapshotNotFoundException if no snapshot was taken with the token
+     */
+    public ProductSnapshotPage getPage(int token, Integer after, Integer size) {
+        int pageSize = Math.min(size != null ? size : properties.getDefaultPageSize(), properties.getMaxPageSize());
+        List<Product> products = read(auditReader -> {
+            if(token < 0 || token > currentRevision(auditReader)) {
+                throw new SnapshotNotFoundException(token);
+            }
+            if(token == 0) {
+                // taken before any product was written
+                return Collections.<Product>emptyList();
+            }
+            AuditQuery query = auditReader.createQuery().forEntitiesAtRevision(Product.class, token);
+            if(after != null) {
+                query.add(AuditEntity.id().gt(after));
+            }
+            @SuppressWarnings("unchecked")
+            List<Product> page = query.addOrder(AuditEntity.id().asc())
+                    .setMaxResults(pageSize + 1)
+                    .getResultList();
+            return page;
+        });
+        boolean lastPage = products.size() <= pageSize;
+        if(!lastPage) {
+            products = products.subList(0, pageSize);
+        }
+        return new ProductSnapshotPage(token, products, lastPage ? null : products.get(pageSize - 1).getId());
+    }
+
+    private int currentRevision(AuditReader auditReader) {
+        Number revision = (Number) auditReader.createQuery()
+                .forRevisionsOfEntity(Product.class, false, true)
+                .addProjection(AuditEntity.revisionNumber().max())
+                .getSingleResult();
+        return revision != null ? revision.intValue() : 0;
+    }
+
+    /**
+     * Reads the product history in a short read-only transaction within the scans bulkhead
+     */
+    private <T> T read(Function<AuditReader, T> query) {
+        return bulkheads.getScans().execute(() ->
+                readOnlyTransaction.execute(status -> query.apply(AuditReaderFactory.get(entityManager))));
+    }
+}
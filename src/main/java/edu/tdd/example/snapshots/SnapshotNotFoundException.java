@@ -0,0 +1,12 @@
+package edu.tdd.example.snapshots;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class SnapshotNotFoundException extends RuntimeException {
+
+    public SnapshotNotFoundException(int token) {
+        super("Snapshot " + token + " does not exist");
+    }
+}
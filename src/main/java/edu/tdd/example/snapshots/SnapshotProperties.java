@@ -0,0 +1,20 @@
+package edu.tdd.example.snapshots;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("products.snapshots")
+public class SnapshotProperties {
+
+    private int defaultPageSize = 100;
+
+    private int maxPageSize = 1000;
+
+    /**
+     * How long taking a snapshot waits for the writes in progress to end
+     */
+    private Duration writeWaitTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,12 @@
+package edu.tdd.example.snapshots;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SnapshotUnavailableException extends RuntimeException {
+
+    public SnapshotUnavailableException() {
+        super("Writes in progress did not end in time to take a consistent snapshot");
+    }
+}
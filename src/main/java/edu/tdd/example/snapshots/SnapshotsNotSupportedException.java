@@ -0,0 +1,12 @@
+package edu.tdd.example.snapshots;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_IMPLEMENTED)
+public class SnapshotsNotSupportedException extends RuntimeException {
+
+    public SnapshotsNotSupportedException() {
+        super("Snapshots need the product history, which only the JPA repository records");
+    }
+}
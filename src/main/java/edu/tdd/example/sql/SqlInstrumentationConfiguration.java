@@ -0,0 +1,54 @@
+package edu.tdd.example.sql;
+
+import net.ttddyy.dsproxy.listener.logging.SLF4JLogLevel;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps the application data source to count statements per request and log slow queries.
+ */
+@Configuration
+@EnableConfigurationProperties(SqlInstrumentationProperties.class)
+public class SqlInstrumentationConfiguration {
+
+    /**
+     * Static and bound by hand: post processors are created before configuration properties beans
+     */
+    @Bean
+    public static BeanPostProcessor sqlInstrumentingDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if(!(bean instanceof DataSource) || !"dataSource".equals(beanName)) {
+                    return bean;
+                }
+                SqlInstrumentationProperties properties = Binder.get(environment)
+                        .bind("products.sql", SqlInstrumentationProperties.class)
+                        .orElseGet(SqlInstrumentationProperties::new);
+                return ProxyDataSourceBuilder.create((DataSource) bean)
+                        .name("products")
+                        .listener(new SqlStatementCountListener())
+                        .logSlowQueryBySlf4j(properties.getSlowQueryThreshold().toMillis(), TimeUnit.MILLISECONDS, SLF4JLogLevel.WARN)
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatementCountFilter> sqlStatementCountFilter(SqlInstrumentationProperties properties) {
+        FilterRegistrationBean<SqlStatementCountFilter> registration =
+                new FilterRegistrationBean<>(new SqlStatementCountFilter(properties.getMaxStatementsPerRequest()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
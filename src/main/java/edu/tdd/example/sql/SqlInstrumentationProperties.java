@@ -0,0 +1,21 @@
+package edu.tdd.example.sql;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("products.sql")
+public class SqlInstrumentationProperties {
+
+    /**
+     * Queries running longer than this are logged with their bind parameters
+     */
+    private Duration slowQueryThreshold = Duration.ofMillis(200);
+
+    /**
+     * Requests issuing more statements than this are logged as suspected N+1 queries
+     */
+    private int maxStatementsPerRequest = 10;
+}
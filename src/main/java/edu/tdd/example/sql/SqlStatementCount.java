@@ -0,0 +1,70 @@
+package edu.tdd.example.sql;
+
+import net.ttddyy.dsproxy.QueryType;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements executed by the current thread, by statement type.
+ *
+ * Reset at the start of each HTTP request by {@link SqlStatementCountFilter}, so after a
+ * request the counts of its thread describe that request. Tests use the assert methods to
+ * pin the number of statements an operation may issue:
+ * <pre>
+ *     mockMvc.perform(get("/products/{id}", 1));
+ *     SqlStatementCount.assertSelectCount(1);
+ * </pre>
+ */
+public final class SqlStatementCount {
+
+    private static final ThreadLocal<Map<QueryType, Integer>> COUNTS = ThreadLocal.withInitial(() -> new EnumMap<>(QueryType.class));
+
+    private SqlStatementCount() {
+    }
+
+    public static void reset() {
+        COUNTS.get().clear();
+    }
+
+    static void increment(QueryType type) {
+        COUNTS.get().merge(type, 1, Integer::sum);
+    }
+
+    public static int get(QueryType type) {
+        return COUNTS.get().getOrDefault(type, 0);
+    }
+
+    public static int getTotal() {
+        return COUNTS.get().values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public static void assertSelectCount(int expected) {
+        assertCount(QueryType.SELECT, expected);
+    }
+
+    public static void assertInsertCount(int expected) {
+        assertCount(QueryType.INSERT, expected);
+    }
+
+    public static void assertUpdateCount(int expected) {
+        assertCount(QueryType.UPDATE, expected);
+    }
+
+    public static void assertDeleteCount(int expected) {
+        assertCount(QueryType.DELETE, expected);
+    }
+
+    public static void assertTotalCount(int expected) {
+        if(getTotal() != expected) {
+            throw new AssertionError("Expected " + expected + " SQL statements but " + getTotal() + " were executed: " + COUNTS.get());
+        }
+    }
+
+    private static void assertCount(QueryType type, int expected) {
+        int actual = get(type);
+        if(actual != expected) {
+            throw new AssertionError("Expected " + expected + " " + type + " statements but " + actual + " were executed: " + COUNTS.get());
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package edu.tdd.example.sql;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements of each HTTP request and logs requests issuing suspiciously many.
+ */
+@Slf4j
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    private final int maxStatementsPerRequest;
+
+    public SqlStatementCountFilter(int maxStatementsPerRequest) {
+        this.maxStatementsPerRequest = maxStatementsPerRequest;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementCount.reset();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = SqlStatementCount.getTotal();
+            if(statements > maxStatementsPerRequest) {
+                log.warn("{} {} issued {} SQL statements, more than the expected maximum of {}",
+                        request.getMethod(), request.getRequestURI(), statements, maxStatementsPerRequest);
+            } else {
+                log.debug("{} {} issued {} SQL statements", request.getMethod(), request.getRequestURI(), statements);
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package edu.tdd.example.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.util.List;
+
+/**
+ * Feeds {@link SqlStatementCount}; a JDBC batch counts as one statement per distinct query.
+ */
+class SqlStatementCountListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        for(QueryInfo queryInfo : queryInfoList) {
+            SqlStatementCount.increment(QueryUtils.getQueryType(queryInfo.getQuery()));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package edu.tdd.example.startup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops the application as soon as it is ready, so a training run started with
+ * -XX:ArchiveClassesAtExit dumps a class data sharing archive of everything startup loaded.
+ * Used by the appcds Maven profile.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty("products.cds.training")
+public class CdsTrainingRun implements ApplicationListener<ApplicationReadyEvent> {
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        log.info("CDS training run finished, exiting");
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
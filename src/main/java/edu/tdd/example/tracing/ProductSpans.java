@@ -0,0 +1,42 @@
+package edu.tdd.example.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Attributes shared by the product spans.
+ */
+final class ProductSpans {
+
+    static final String INSTRUMENTATION_NAME = "edu.tdd.example";
+
+    static final AttributeKey<Long> PRODUCT_ID = AttributeKey.longKey("product.id");
+
+    static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("product.outcome");
+
+    static final AttributeKey<Long> HTTP_STATUS_CODE = AttributeKey.longKey("http.status_code");
+
+    private ProductSpans() {
+    }
+
+    static void setStatus(Span span, int statusCode) {
+        span.setAttribute(HTTP_STATUS_CODE, statusCode);
+        HttpStatus status = HttpStatus.resolve(statusCode);
+        if(status == null || status.is2xxSuccessful()) {
+            span.setAttribute(OUTCOME, "ok");
+        } else {
+            span.setAttribute(OUTCOME, status.name().toLowerCase());
+        }
+        if(status != null && status.is5xxServerError()) {
+            span.setStatus(StatusCode.ERROR);
+        }
+    }
+
+    static void setError(Span span, Throwable error) {
+        span.setAttribute(OUTCOME, "error");
+        span.setStatus(StatusCode.ERROR);
+        span.recordException(error);
+    }
+}
@@ -0,0 +1,84 @@
+package edu.tdd.example.tracing;
+
+import edu.tdd.example.domain.Product;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+/**
+ * Opens a span around each product controller handler, service method and repository call,
+ * tagged with the product id and the outcome.
+ */
+@Aspect
+@Component
+public class TracingAspect {
+
+    private final Tracer tracer;
+
+    public TracingAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("within(edu.tdd.example.controllers.ProductController)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("ProductController", joinPoint);
+    }
+
+    @Around("within(edu.tdd.example.services.ProductService)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("ProductService", joinPoint);
+    }
+
+    @Around("this(edu.tdd.example.repositories.ProductRepository)")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("ProductRepository", joinPoint);
+    }
+
+    private Object trace(String component, ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Span span = tracer.spanBuilder(component + "." + signature.getName()).startSpan();
+        Integer productId = productId(signature, joinPoint.getArgs());
+        if(productId != null) {
+            span.setAttribute(ProductSpans.PRODUCT_ID, productId);
+        }
+        try(Scope ignored = span.makeCurrent()) {
+            Object result = joinPoint.proceed();
+            setOutcome(span, signature, result);
+            return result;
+        } catch(Throwable e) {
+            ProductSpans.setError(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private static Integer productId(MethodSignature signature, Object[] args) {
+        String[] names = signature.getParameterNames();
+        for(int i = 0; i < args.length; i++) {
+            if(args[i] instanceof Product) {
+                return ((Product) args[i]).getId();
+            }
+            if(args[i] instanceof Integer && names != null && "id".equals(names[i])) {
+                return (Integer) args[i];
+            }
+        }
+        return null;
+    }
+
+    private static void setOutcome(Span span, MethodSignature signature, Object result) {
+        if(result instanceof ResponseEntity) {
+            ProductSpans.setStatus(span, ((ResponseEntity<?>) result).getStatusCodeValue());
+        } else if(result == null && signature.getReturnType() != void.class) {
+            span.setAttribute(ProductSpans.OUTCOME, "not_found");
+        } else {
+            span.setAttribute(ProductSpans.OUTCOME, "ok");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package edu.tdd.example.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Sets up the OpenTelemetry tracer used by the product spans.
+ *
+ * A SpanExporter bean takes precedence over products.tracing.exporter; tests use it to plug
+ * in an in-memory exporter. With neither, the tracer is a no-op and spans cost next to nothing.
+ * The tracer provider is owned here rather than exposed as a bean, like the shard pools.
+ */
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+public class TracingConfiguration implements DisposableBean {
+
+    private SdkTracerProvider tracerProvider;
+
+    @Bean
+    public Tracer tracer(TracingProperties properties, ObjectProvider<SpanExporter> spanExporter) {
+        SpanExporter exporter = spanExporter.getIfAvailable(() -> exporter(properties.getExporter()));
+        if(exporter == null) {
+            return OpenTelemetry.noop().getTracer(ProductSpans.INSTRUMENTATION_NAME);
+        }
+        SpanProcessor processor = properties.isSynchronousExport()
+                ? SimpleSpanProcessor.create(exporter)
+                : BatchSpanProcessor.builder(exporter).build();
+        tracerProvider = SdkTracerProvider.builder()
+                .setResource(Resource.getDefault().merge(Resource.create(
+                        Attributes.of(AttributeKey.stringKey("service.name"), properties.getServiceName()))))
+                .addSpanProcessor(processor)
+                .build();
+        return tracerProvider.get(ProductSpans.INSTRUMENTATION_NAME);
+    }
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter> tracingFilter(Tracer tracer) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(tracer));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * Static so the data source can be wrapped before anything uses it. The tracer is handed over
+     * once created rather than looked up, as connections are also taken from background threads
+     * while the context starts
+     */
+    @Bean
+    public static BeanPostProcessor tracingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+
+            private TracingDataSource dataSource;
+
+            private Tracer tracer;
+
+            @Override
+            public synchronized Object postProcessAfterInitialization(Object bean, String beanName) {
+                if(bean instanceof DataSource && "dataSource".equals(beanName)) {
+                    dataSource = new TracingDataSource((DataSource) bean);
+                    bean = dataSource;
+                } else if(bean instanceof Tracer) {
+                    tracer = (Tracer) bean;
+                }
+                if(dataSource != null && tracer != null) {
+                    dataSource.setTracer(tracer);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void destroy() {
+        if(tracerProvider != null) {
+            tracerProvider.close();
+        }
+    }
+
+    private static SpanExporter exporter(TracingProperties.Exporter exporter) {
+        switch(exporter) {
+            case LOGGING:
+                return LoggingSpanExporter.create();
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package edu.tdd.example.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.Tracer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Records a span for each connection checkout, so time waiting on the pool shows up apart from SQL.
+ */
+class TracingDataSource extends DelegatingDataSource {
+
+    /**
+     * No-op until the tracer bean exists, e.g. while Hibernate creates the schema
+     */
+    private volatile Tracer tracer = OpenTelemetry.noop().getTracer(ProductSpans.INSTRUMENTATION_NAME);
+
+    TracingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    void setTracer(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Span span = tracer.spanBuilder("DataSource.getConnection").startSpan();
+        try {
+            Connection connection = super.getConnection();
+            span.setAttribute(ProductSpans.OUTCOME, "ok");
+            return connection;
+        } catch(SQLException | RuntimeException e) {
+            ProductSpans.setError(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package edu.tdd.example.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Opens the root span of each HTTP request. The time it spends outside the controller span
+ * is request parsing and JSON serialization.
+ */
+public class TracingFilter extends OncePerRequestFilter {
+
+    private final Tracer tracer;
+
+    public TracingFilter(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Span span = tracer.spanBuilder(request.getMethod() + " " + request.getRequestURI())
+                .setSpanKind(SpanKind.SERVER)
+                .startSpan();
+        try(Scope ignored = span.makeCurrent()) {
+            chain.doFilter(request, response);
+            ProductSpans.setStatus(span, response.getStatus());
+        } catch(IOException | ServletException | RuntimeException e) {
+            ProductSpans.setError(span, e);
+            throw e;
+        } finally {
+            // name by route rather than raw URI, so ids do not blow up span name cardinality
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if(pattern != null) {
+                span.updateName(request.getMethod() + " " + pattern);
+            }
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package edu.tdd.example.tracing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("products.tracing")
+public class TracingProperties {
+
+    /**
+     * Where finished spans go when no SpanExporter bean is defined
+     */
+    private Exporter exporter = Exporter.NONE;
+
+    /**
+     * Service name attached to every span
+     */
+    private String serviceName = "spring-tdd-example";
+
+    /**
+     * Exports each span as it ends instead of in background batches, for tests and debugging
+     */
+    private boolean synchronousExport = false;
+
+    public enum Exporter {
+        /**
+         * No spans are recorded
+         */
+        NONE,
+        /**
+         * Finished spans are written to the application log
+         */
+        LOGGING
+    }
+}
@@ -0,0 +1,76 @@
+package edu.tdd.example.warmup;
+
+import edu.tdd.example.hotproducts.HotProduct;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hot products of a run kept for the next one, one "id frequency" line per product, most read first
+ */
+@Slf4j
+public class HotProductsFile {
+
+    private final Path file;
+
+    public HotProductsFile(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return hot products saved by an earlier run, empty if none were saved or the file is unreadable
+     */
+    public List<HotProduct> load() {
+        if(!Files.exists(file)) {
+            return Collections.emptyList();
+        }
+        List<HotProduct> hotProducts = new ArrayList<>();
+        try {
+            for(String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String[] fields = line.trim().split(" ");
+                if(fields.length == 2) {
+                    hotProducts.add(new HotProduct(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]), false));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Hot products could not be read from {}", file, e);
+            return Collections.emptyList();
+        }
+        return hotProducts;
+    }
+
+    /**
+     * Replaces the saved hot products, unless there are none, so an idle run keeps those of a busy one
+     * @param hotProducts most read first
+     */
+    public void save(List<HotProduct> hotProducts) {
+        if(hotProducts.isEmpty()) {
+            return;
+        }
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            if(directory != null) {
+                Files.createDirectories(directory);
+            }
+            // written aside and moved, so a crash never leaves half a file
+            Path written = file.resolveSibling(file.getFileName() + ".tmp");
+            try(BufferedWriter writer = Files.newBufferedWriter(written, StandardCharsets.UTF_8)) {
+                for(HotProduct hotProduct : hotProducts) {
+                    writer.write(hotProduct.getId() + " " + hotProduct.getFrequency());
+                    writer.newLine();
+                }
+            }
+            Files.move(written, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Hot products could not be saved to {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package edu.tdd.example.warmup;
+
+import edu.tdd.example.hotproducts.HotProducts;
+import edu.tdd.example.services.ProductService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.util.StringUtils;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.nio.file.Paths;
+import java.util.function.Supplier;
+
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(value = "products.warmup.enabled", matchIfMissing = true)
+@EnableConfigurationProperties(WarmUpProperties.class)
+public class WarmUpConfiguration {
+
+    @Bean
+    public WarmUpRunner warmUpRunner(WarmUpProperties properties, HotProducts hotProducts, ProductService productService,
+                                     ObjectProvider<ServerProperties> serverProperties, Environment environment) {
+        HotProductsFile hotProductsFile = StringUtils.hasText(properties.getHotProductsFile())
+                ? new HotProductsFile(Paths.get(properties.getHotProductsFile()))
+                : null;
+        // only set once the web server listens, after this bean is created, and never in mock environments
+        Supplier<String> baseUrl = () -> {
+            String port = environment.getProperty("local.server.port");
+            ServerProperties server = serverProperties.getIfAvailable(ServerProperties::new);
+            return port != null ? baseUrl(server, port) : null;
+        };
+        return new WarmUpRunner(hotProducts, productService, hotProductsFile, baseUrl,
+                properties.getRequests(), properties.getThreads(), properties.getMaxDuration());
+    }
+
+    @Bean
+    public SchedulingConfigurer hotProductsSaving(WarmUpProperties properties, WarmUpRunner warmUpRunner) {
+        return registrar -> registrar.addFixedDelayTask(warmUpRunner::saveHotProducts, properties.getSaveInterval().toMillis());
+    }
+
+    /**
+     * URL of the product endpoints as served by this instance, over TLS when server.ssl is enabled
+     * and on server.address when it is bound to one
+     */
+    private static String baseUrl(ServerProperties server, String port) {
+        String scheme = server.getSsl() != null && server.getSsl().isEnabled() ? "https" : "http";
+        InetAddress address = server.getAddress();
+        String host = address == null || address.isAnyLocalAddress() ? "localhost"
+                : address instanceof Inet6Address ? "[" + address.getHostAddress() + "]"
+                : address.getHostAddress();
+        String contextPath = server.getServlet().getContextPath() != null ? server.getServlet().getContextPath() : "";
+        return scheme + "://" + host + ":" + port + contextPath + "/products";
+    }
+}
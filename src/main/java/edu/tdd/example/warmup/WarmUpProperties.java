@@ -0,0 +1,41 @@
+package edu.tdd.example.warmup;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("products.warmup")
+public class WarmUpProperties {
+
+    /**
+     * Whether the instance warms up before reporting ready
+     */
+    private boolean enabled = true;
+
+    /**
+     * Requests sent to the instance's own read endpoints, enough for the JIT to compile their paths
+     */
+    private int requests = 5000;
+
+    /**
+     * Concurrent warm-up clients
+     */
+    private int threads = 4;
+
+    /**
+     * Longest warm-up, the instance reports ready after it even if requests are left
+     */
+    private Duration maxDuration = Duration.ofSeconds(30);
+
+    /**
+     * File the hot products are saved to and preloaded from on the next start, none by default
+     */
+    private String hotProductsFile;
+
+    /**
+     * How often the hot products are saved, besides on shutdown
+     */
+    private Duration saveInterval = Duration.ofMinutes(1);
+}
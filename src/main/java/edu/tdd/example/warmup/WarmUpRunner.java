@@ -0,0 +1,173 @@
+package edu.tdd.example.warmup;
+
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.hotproducts.HotProduct;
+import edu.tdd.example.hotproducts.HotProducts;
+import edu.tdd.example.services.ProductService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Warms the instance up before it reports ready.
+ *
+ * Application runners run once the web server is started but before Spring Boot marks the instance
+ * as accepting traffic, so the readiness probe stays down meanwhile. The runner:
+ * <ol>
+ *     <li>pins the hot products of the last run, loading and serialising them in one go</li>
+ *     <li>sends requests to its own read endpoints, both pinned and database backed products,
+ *     warming Tomcat, Hibernate, Jackson and the JIT along the real request paths</li>
+ *     <li>forgets the reads it made and pins the last run's hot products again, so its own
+ *     requests do not decide what is hot</li>
+ * </ol>
+ * Besides the last run's hot products, requests read the first of the products listed by the
+ * product service, so they exercise found products rather than 404s, also without a hot products file.
+ */
+@Slf4j
+public class WarmUpRunner implements ApplicationRunner, DisposableBean {
+
+    private static final int WARM_UP_IDS = 100;
+
+    private final HotProducts hotProducts;
+
+    private final ProductService productService;
+
+    private final HotProductsFile hotProductsFile;
+
+    private final Supplier<String> baseUrl;
+
+    private final int requests;
+
+    private final int threads;
+
+    private final Duration maxDuration;
+
+    /**
+     * @param hotProductsFile null if hot products are not kept between runs
+     * @param baseUrl of the instance's own product endpoints, supplying null without a web server
+     */
+    public WarmUpRunner(HotProducts hotProducts, ProductService productService, HotProductsFile hotProductsFile,
+                        Supplier<String> baseUrl, int requests, int threads, Duration maxDuration) {
+        this.hotProducts = hotProducts;
+        this.productService = productService;
+        this.hotProductsFile = hotProductsFile;
+        this.baseUrl = baseUrl;
+        this.requests = requests;
+        this.threads = threads;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        long start = System.nanoTime();
+        List<HotProduct> lastRun = hotProductsFile != null ? hotProductsFile.load() : Collections.emptyList();
+        hotProducts.seed(lastRun);
+
+        int sent = 0;
+        String url = baseUrl.get();
+        if(url != null) {
+            sent = exercise(url, warmUpIds(lastRun));
+            hotProducts.clear();
+            hotProducts.seed(lastRun);
+        }
+        log.info("Warmed up in {} ms: {} requests, {} hot products pinned", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                sent, hotProducts.getTop().stream().filter(HotProduct::isPinned).count());
+    }
+
+    /**
+     * Saves the hot products for the next run
+     */
+    public void saveHotProducts() {
+        if(hotProductsFile != null) {
+            hotProductsFile.save(hotProducts.getTop());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        saveHotProducts();
+    }
+
+    /**
+     * @return the last run's hot products, then existing products up to the warm-up ids
+     */
+    private List<Integer> warmUpIds(List<HotProduct> lastRun) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        lastRun.forEach(hotProduct -> ids.add(hotProduct.getId()));
+        try {
+            Iterator<Product> products = productService.findAll().iterator();
+            while(ids.size() < WARM_UP_IDS && products.hasNext()) {
+                ids.add(products.next().getId());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not list products to warm up with", e);
+        }
+        return new ArrayList<>(ids);
+    }
+
+    private int exercise(String url, List<Integer> ids) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDuration.toNanos();
+        AtomicInteger next = new AtomicInteger();
+        LongAdder failed = new LongAdder();
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        for(int client = 0; client < threads; client++) {
+            clients.submit(() -> {
+                int request;
+                while((request = next.getAndIncrement()) < requests && System.nanoTime() < deadline) {
+                    // only the stats without products to read
+                    String path = request % 50 == 0 || ids.isEmpty() ? "/stats" : "/" + ids.get(request % ids.size());
+                    if(!get(url + path)) {
+                        failed.increment();
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        if(!clients.awaitTermination(maxDuration.toMillis() + 5000, TimeUnit.MILLISECONDS)) {
+            clients.shutdownNow();
+        }
+        if(failed.sum() > 0) {
+            log.warn("{} warm-up requests failed", failed.sum());
+        }
+        return Math.min(next.get(), requests);
+    }
+
+    /**
+     * @return false if the request could not be sent or failed with a server error
+     */
+    private static boolean get(String url) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+            int status = connection.getResponseCode();
+            // read to the end so the keep-alive connection is reused
+            try(InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                byte[] buffer = new byte[8192];
+                while(body != null && body.read(buffer) >= 0) {
+                    // drained
+                }
+            }
+            return status < 500;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+-- Run by Hibernate after it created the schema, one statement per line.
+-- A snapshot token is the highest rev, and a page reads the history rows valid at it, rev <= token < revend.
+-- The primary key (id, rev) serves neither; H2 indexes the revision foreign keys itself, other databases do not.
+create index product_aud_rev_revend on product_aud (rev, revend)
@@ -0,0 +1,142 @@
+package edu.tdd.example.it.controllers;
+
+import edu.tdd.example.bulkhead.BulkheadProperties;
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.repositories.ProductRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Shows that point reads are served while slow scans hold every permit of their bulkhead.
+ *
+ * The mocked repository models a connection pool of 10 connections: every call
+ * holds one of them for its whole duration, scans until the test lets them finish.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith({SpringExtension.class})
+public class ProductControllerBulkheadIntegrationTest {
+
+    private static final int POOL_SIZE = 10;
+
+    private static final int SCANNERS = 16;
+
+    @MockBean
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BulkheadProperties bulkheadProperties;
+
+    private final Semaphore connectionPool = new Semaphore(POOL_SIZE, true);
+
+    private final CountDownLatch scansReleased = new CountDownLatch(1);
+
+    private final AtomicInteger runningScans = new AtomicInteger();
+
+    @BeforeEach
+    public void setup() {
+        doAnswer(invocation -> withConnection(this::holdScan)).when(productRepository).findAll();
+        doAnswer(invocation -> withConnection(() -> new Product(invocation.getArgument(0),"Product","Description",1,1)))
+                .when(productRepository).findProductById(anyInt());
+    }
+
+    @Test
+    @DisplayName("Test point reads served while scans hold all their permits and excess scans rejected")
+    public void testPointReadsIsolatedFromScans() throws Exception {
+        int scanPermits = bulkheadProperties.getScans().getMaxConcurrentCalls();
+        AtomicInteger rejectedScans = new AtomicInteger();
+        ExecutorService scanners = Executors.newFixedThreadPool(SCANNERS);
+
+        try {
+            // given more scans than their bulkhead lets through, held in the repository
+            List<Future<Integer>> scans = new ArrayList<>();
+            for(int i = 0; i < SCANNERS; i++) {
+                scans.add(scanners.submit(() -> {
+                    int status = mockMvc.perform(MockMvcRequestBuilders.get("/products"))
+                            .andReturn().getResponse().getStatus();
+                    if(status == 503) {
+                        rejectedScans.incrementAndGet();
+                    }
+                    return status;
+                }));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while(runningScans.get() + rejectedScans.get() < SCANNERS) {
+                Assertions.assertTrue(System.nanoTime() < deadline, "scans should run or be rejected");
+                Thread.sleep(1);
+            }
+
+            // then the excess scans are rejected rather than queued
+            Assertions.assertTrue(runningScans.get() <= scanPermits, "at most " + scanPermits + " scans should run");
+            Assertions.assertEquals(SCANNERS - runningScans.get(), rejectedScans.get());
+
+            // and point reads never wait on a scan permit, they would be rejected after its wait
+            for(int i = 0; i < 200; i++) {
+                int status = mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}", 1))
+                        .andReturn().getResponse().getStatus();
+                Assertions.assertEquals(200, status);
+            }
+
+            // when the scans finish
+            scansReleased.countDown();
+            int completedScans = 0;
+            for(Future<Integer> scan : scans) {
+                if(scan.get(5, TimeUnit.SECONDS) == 200) {
+                    completedScans++;
+                }
+            }
+            Assertions.assertEquals(runningScans.get(), completedScans);
+        } finally {
+            scansReleased.countDown();
+            scanners.shutdown();
+            scanners.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private List<Product> holdScan() {
+        runningScans.incrementAndGet();
+        try {
+            Assertions.assertTrue(scansReleased.await(10, TimeUnit.SECONDS), "scans should be released by the test");
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Collections.emptyList();
+    }
+
+    private <T> T withConnection(Supplier<T> result) throws InterruptedException {
+        connectionPool.acquire();
+        try {
+            return result.get();
+        } finally {
+            connectionPool.release();
+        }
+    }
+}
@@ -2,7 +2,8 @@ package edu.tdd.example.it.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.tdd.example.domain.Product;
-import edu.tdd.example.ut.repositories.ProductRepository;
+import edu.tdd.example.repositories.ProductRepository;
+import edu.tdd.example.sql.SqlStatementCount;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -75,6 +76,10 @@ public class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.description",is("First Product Description")))
                 .andExpect(jsonPath("$.quantity",is(8)))
                 .andExpect(jsonPath("$.version",is(1)));
+
+        // validate a single product is read with a single query
+        SqlStatementCount.assertTotalCount(1);
+        SqlStatementCount.assertSelectCount(1);
     }
 
     @Test
@@ -90,6 +95,26 @@ public class ProductControllerIntegrationTest {
                 // validate response body
                 .andExpect(jsonPath("$[0].name",is("First Product")))
                 .andExpect(jsonPath("$[1].name",is("Second Product")));
+
+        // validate all products are read with a single query and no N+1 selects
+        SqlStatementCount.assertTotalCount(1);
+    }
+
+    @Test
+    @DisplayName("Test product stats - GET /products/stats")
+    public void testProductStats() throws Exception {
+
+        // perform GET Request
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/stats"))
+                // validate 200 OK and JSON response type is received
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+
+                // validate response body
+                .andExpect(jsonPath("$.products",is(2)))
+                .andExpect(jsonPath("$.totalQuantity",is(18)))
+                .andExpect(jsonPath("$.distribution[2].min",is(10)))
+                .andExpect(jsonPath("$.distribution[2].products",is(1)));
     }
 
     @Test
@@ -118,6 +143,12 @@ public class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.description",is("New product description")))
                 .andExpect(jsonPath("$.quantity",is(1)))
                 .andExpect(jsonPath("$.version",is(1)));
+
+        // validate the product is inserted once, plus a revision and its history row;
+        // the service looks the id up for the before image and the merge looks it up again,
+        // as the missing product is not in the persistence context
+        SqlStatementCount.assertInsertCount(3);
+        SqlStatementCount.assertSelectCount(2);
     }
 
     @Test
@@ -147,6 +178,10 @@ public class ProductControllerIntegrationTest {
                 .andExpect(jsonPath("$.description",is("Updated product description")))
                 .andExpect(jsonPath("$.quantity",is(10)))
                 .andExpect(jsonPath("$.version",is(2)));
+
+        // validate the product is updated once, plus closing its previous history row
+        SqlStatementCount.assertUpdateCount(2);
+        SqlStatementCount.assertSelectCount(2);
     }
 
     @Test
@@ -191,6 +226,10 @@ public class ProductControllerIntegrationTest {
         mockMvc.perform(MockMvcRequestBuilders.delete("/products/{id}",1))
                 // validate 200 OK received
                 .andExpect(status().isOk());
+
+        // validate the product is deleted once
+        SqlStatementCount.assertDeleteCount(1);
+        SqlStatementCount.assertSelectCount(2);
     }
 
     @Test
@@ -0,0 +1,114 @@
+package edu.tdd.example.it.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.domain.ReservationRequest;
+import edu.tdd.example.repositories.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith({SpringExtension.class})
+public class ProductReservationIntegrationTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    public void setup() {
+        // a product per test, as stock ledgers only follow changes made through the service
+        for(int id = 30; id <= 32; id++) {
+            productRepository.save(new Product(id, "Flash sale product", "Description", 3, 1));
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Test reserve and commit stock - POST /products/30/reservations")
+    public void testReserveAndCommit() throws Exception {
+
+        // perform POST Request
+        String body = mockMvc.perform(reserve(30, 2))
+                // validate 201 CREATED and reservation received
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.productId", is(30)))
+                .andExpect(jsonPath("$.quantity", is(2)))
+                .andReturn().getResponse().getContentAsString();
+        String reservationId = objectMapper.readTree(body).get("id").asText();
+
+        // validate the remaining stock cannot be oversold
+        mockMvc.perform(reserve(30, 2))
+                .andExpect(status().isConflict());
+
+        // commit the reservation, answered once the next flush wrote it to the product
+        mockMvc.perform(MockMvcRequestBuilders.post("/products/{id}/reservations/{reservationId}/commit", 30, reservationId))
+                .andExpect(status().isOk());
+
+        Product product = productRepository.findProductById(30);
+        Assertions.assertEquals(1, product.getQuantity());
+        Assertions.assertEquals(2, product.getVersion());
+
+        // validate a committed reservation cannot be released
+        mockMvc.perform(MockMvcRequestBuilders.delete("/products/{id}/reservations/{reservationId}", 30, reservationId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Test release gives stock back - DELETE /products/31/reservations/{id}")
+    public void testReleaseGivesStockBack() throws Exception {
+
+        JsonNode reservation = objectMapper.readTree(mockMvc.perform(reserve(31, 3))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString());
+
+        // perform DELETE Request
+        mockMvc.perform(MockMvcRequestBuilders.delete("/products/{id}/reservations/{reservationId}", 31, reservation.get("id").asText()))
+                .andExpect(status().isOk());
+
+        // validate the stock can be reserved again
+        mockMvc.perform(reserve(31, 3))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    @DisplayName("Test reservation of a missing product - POST /products/100/reservations")
+    public void testReservationOfMissingProduct() throws Exception {
+        mockMvc.perform(reserve(100, 1))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(reserve(32, 0))
+                .andExpect(status().isBadRequest());
+    }
+
+    private MockHttpServletRequestBuilder reserve(int id, int quantity) throws Exception {
+        return MockMvcRequestBuilders.post("/products/{id}/reservations", id)
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content(objectMapper.writeValueAsString(new ReservationRequest(quantity)));
+    }
+}
@@ -0,0 +1,34 @@
+package edu.tdd.example.it.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("inmemory")
+@ExtendWith({SpringExtension.class})
+public class ProductSnapshotInMemoryIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Test snapshots not implemented without product history - POST /products/snapshots")
+    public void testSnapshotsNotImplemented() throws Exception {
+        // the in-memory repository records no history, an empty snapshot would look like an empty catalogue
+        mockMvc.perform(MockMvcRequestBuilders.post("/products/snapshots"))
+                .andExpect(status().isNotImplemented());
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/snapshots/{token}", 1))
+                .andExpect(status().isNotImplemented());
+    }
+}
@@ -0,0 +1,125 @@
+package edu.tdd.example.it.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.repositories.ProductRepository;
+import edu.tdd.example.services.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith({SpringExtension.class})
+public class ProductSnapshotIntegrationTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setup() {
+        // given five products
+        for(int id = 1; id <= 5; id++) {
+            productRepository.save(new Product(id, "Product " + id, "Description", id, 1));
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Test snapshot pages ignore later writes - GET /products/snapshots/{token}")
+    public void testSnapshotPagesIgnoreLaterWrites() throws Exception {
+
+        // take a snapshot and read its first page
+        int token = createSnapshot();
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/snapshots/{token}", token).param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products", hasSize(2)))
+                .andExpect(jsonPath("$.products[0].id", is(1)))
+                .andExpect(jsonPath("$.nextAfter", is(2)));
+
+        // when the catalogue changes between pages
+        productService.update(new Product(4, "Updated product", "Description", 40, null));
+        productService.delete(5);
+        productService.save(new Product(6, "New product", "Description", 6, null));
+
+        // validate the remaining pages still show the catalogue as of the snapshot
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/snapshots/{token}", token)
+                .param("after", "2").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products[1].id", is(4)))
+                .andExpect(jsonPath("$.products[1].name", is("Product 4")))
+                .andExpect(jsonPath("$.nextAfter", is(4)));
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/snapshots/{token}", token)
+                .param("after", "4").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products", hasSize(1)))
+                .andExpect(jsonPath("$.products[0].id", is(5)))
+                .andExpect(jsonPath("$.nextAfter", nullValue()));
+
+        // validate a new snapshot sees the changes
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/snapshots/{token}", createSnapshot()).param("after", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.products", hasSize(2)))
+                .andExpect(jsonPath("$.products[0].name", is("Updated product")))
+                .andExpect(jsonPath("$.products[1].id", is(6)));
+    }
+
+    @Test
+    @DisplayName("Test unknown snapshot not found - GET /products/snapshots/{token}")
+    public void testUnknownSnapshotNotFound() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/snapshots/{token}", Integer.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Test snapshot queries read the history through a revision index")
+    public void testHistoryIndexed() {
+        Assertions.assertEquals(1, jdbcTemplate.queryForObject("select count(distinct index_name) from information_schema.indexes " +
+                "where table_name = 'PRODUCT_AUD' and index_name = 'PRODUCT_AUD_REV_REVEND'", Integer.class));
+
+        // the token query and the validity filter of a page never scan the whole history
+        String tokenPlan = jdbcTemplate.queryForObject("explain select max(rev) from product_aud", String.class);
+        String pagePlan = jdbcTemplate.queryForObject("explain select id from product_aud " +
+                "where rev <= 5 and revtype <> 2 and (revend > 5 or revend is null) and id > 0 order by id", String.class);
+        Assertions.assertFalse(tokenPlan.contains("tableScan"), tokenPlan);
+        Assertions.assertFalse(pagePlan.contains("tableScan"), pagePlan);
+    }
+
+    private int createSnapshot() throws Exception {
+        String body = mockMvc.perform(MockMvcRequestBuilders.post("/products/snapshots"))
+                .andExpect(status().isCreated())
+                .andExpect(header().exists("Location"))
+                .andReturn().getResponse().getContentAsString();
+        return new ObjectMapper().readTree(body).get("token").asInt();
+    }
+}
@@ -0,0 +1,94 @@
+package edu.tdd.example.it.hotproducts;
+
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.hotproducts.HotProducts;
+import edu.tdd.example.repositories.ProductRepository;
+import edu.tdd.example.sql.SqlStatementCount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ExtendWith({SpringExtension.class})
+public class HotProductsIntegrationTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotProducts hotProducts;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        productRepository.save(new Product(40, "Hot product", "Description", 5, 1));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        // pinned products would outlive the rows deleted around the service
+        hotProducts.clear();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Test most read product pinned, listed and refreshed - GET /products/40")
+    public void testHotProductPinned() throws Exception {
+        // given product 40 read often enough to be pinned
+        for(int i = 0; i < 64; i++) {
+            mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}", 40)).andExpect(status().isOk());
+        }
+        hotProducts.refresh();
+
+        // validate it is listed by the management endpoint
+        mockMvc.perform(MockMvcRequestBuilders.get("/actuator/hotproducts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(40)))
+                .andExpect(jsonPath("$[0].pinned", is(true)));
+
+        // validate it is served without a query, as JSON serialised when pinned
+        SqlStatementCount.reset();
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}", 40))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"40\""))
+                .andExpect(jsonPath("$.name", is("Hot product")));
+        SqlStatementCount.assertTotalCount(0);
+
+        // when updated
+        mockMvc.perform(MockMvcRequestBuilders.put("/products/{id}", 40)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("If-Match", 1)
+                .content("{\"name\":\"Renamed\",\"description\":\"Description\",\"quantity\":4}"))
+                .andExpect(status().isOk());
+
+        // validate the new version is read from the database, then pinned again
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}", 40))
+                .andExpect(jsonPath("$.name", is("Renamed")))
+                .andExpect(jsonPath("$.version", is(2)));
+        hotProducts.refresh();
+        SqlStatementCount.reset();
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}", 40))
+                .andExpect(jsonPath("$.version", is(2)));
+        SqlStatementCount.assertTotalCount(0);
+    }
+}
@@ -0,0 +1,65 @@
+package edu.tdd.example.it.repositories;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.repositories.ProductRepository;
+import edu.tdd.example.repositories.inmemory.CompactProductRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("inmemory")
+@ExtendWith({SpringExtension.class})
+public class CompactProductRepositoryIntegrationTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Test in-memory profile starts no database")
+    public void testNoDatabaseStarted() {
+        Assertions.assertTrue(productRepository instanceof CompactProductRepository);
+        Assertions.assertEquals(0, context.getBeanNamesForType(DataSource.class).length);
+        Assertions.assertEquals(0, context.getBeanNamesForType(EntityManagerFactory.class).length);
+    }
+
+    @Test
+    @DisplayName("Test products written and read through the in-memory repository - POST and GET /products/{id}")
+    public void testProductsServedFromMemory() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/products")
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .content(new ObjectMapper().writeValueAsString(new Product(500, "Memory product", "Description", 4, null))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}", 500))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Memory product")))
+                .andExpect(jsonPath("$.version", is(1)));
+        Assertions.assertEquals("Memory product", productRepository.findProductById(500).getName());
+    }
+}
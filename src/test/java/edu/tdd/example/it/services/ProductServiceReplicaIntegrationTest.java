@@ -0,0 +1,154 @@
+package edu.tdd.example.it.services;
+
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.repositories.ProductRepository;
+import edu.tdd.example.services.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the service against two local H2 databases, a primary and a "replica"
+ * that only receives what the test copies into it, i.e. a replica lagging forever.
+ */
+@SpringBootTest(properties = {
+        "products.replica.enabled=true",
+        "products.replica.url=" + ProductServiceReplicaIntegrationTest.REPLICA_URL,
+        "products.replica.max-lag=1m"
+})
+@AutoConfigureMockMvc
+@ExtendWith({SpringExtension.class})
+public class ProductServiceReplicaIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:products-replica;DB_CLOSE_DELAY=-1;" +
+            "INIT=CREATE TABLE IF NOT EXISTS product (id INT PRIMARY KEY, name VARCHAR(255), " +
+            "description VARCHAR(255), quantity INT, version INT)";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @AfterEach
+    public void cleanup() {
+        productRepository.deleteAll();
+        replica.update("DELETE FROM product");
+    }
+
+    @Test
+    @DisplayName("Test point read served by the replica")
+    public void testFindByIdReadsReplica() {
+        // given a product only the replica knows
+        replicate(new Product(50, "Replica product", "Description", 5, 1));
+
+        // when
+        Product product = productService.findById(50);
+
+        // then
+        Assertions.assertNotNull(product, "Product should be read from the replica");
+        Assertions.assertEquals("Replica product", product.getName());
+    }
+
+    @Test
+    @DisplayName("Test point read falls back to primary until replica has the written version")
+    public void testFindByIdFallsBackToPrimaryWhileReplicaLags() {
+        // given a write the replica has not received
+        Product saved = productService.save(new Product(51, "Product", "Description", 5, null));
+
+        // then reads still see it
+        Assertions.assertEquals("Product", productService.findById(51).getName());
+
+        // given an update the replica has not received
+        saved.setVersion(2);
+        saved.setName("Updated product");
+        productService.save(saved);
+        replicate(new Product(51, "Product", "Description", 5, 1));
+
+        // then the stale version 1 on the replica is not returned
+        Assertions.assertEquals(2, productService.findById(51).getVersion());
+    }
+
+    @Test
+    @DisplayName("Test If-Match checked against the primary - PUT /products/53")
+    public void testIfMatchCheckedOnPrimary() throws Exception {
+        // given version 2 written by another instance, so unknown to the lag tracker, and version 1 on the replica
+        productRepository.save(new Product(53, "Product", "Description", 5, 2));
+        replicate(new Product(53, "Product", "Description", 5, 1));
+
+        // when updating with the replica's version
+        mockMvc.perform(MockMvcRequestBuilders.put("/products/{id}", 53)
+                .contentType(MediaType.APPLICATION_JSON_VALUE)
+                .header(HttpHeaders.IF_MATCH, 1)
+                .content("{\"name\":\"Stale update\",\"description\":\"Description\",\"quantity\":1}"))
+                // then the newer version on the primary is not overwritten
+                .andExpect(status().isConflict());
+
+        Assertions.assertEquals("Product", productRepository.findProductById(53).getName());
+    }
+
+    @Test
+    @DisplayName("Test deleted product not resurrected by a lagging replica")
+    public void testDeletedProductNotReadFromLaggingReplica() {
+        productService.save(new Product(52, "Product", "Description", 5, null));
+        replicate(new Product(52, "Product", "Description", 5, 1));
+
+        // when
+        productService.delete(52);
+
+        // then
+        Assertions.assertNull(productService.findById(52));
+    }
+
+    @Test
+    @DisplayName("Test listing served by primary until replica catches up")
+    public void testFindAllRoutedByReplicationState() {
+        replicate(new Product(50, "Replica product", "Description", 5, 1));
+        productService.save(new Product(51, "Primary product", "Description", 5, null));
+
+        // then the listing includes the recent write
+        Assertions.assertEquals(Collections.singletonList(51), listIds());
+
+        // when the replica catches up
+        replicate(new Product(51, "Primary product", "Description", 5, 1));
+        productService.findById(51);
+
+        // then the listing comes from the replica
+        Assertions.assertEquals(Arrays.asList(50, 51), listIds());
+    }
+
+    private List<Integer> listIds() {
+        List<Integer> ids = new ArrayList<>();
+        productService.findAll().forEach(product -> ids.add(product.getId()));
+        return ids;
+    }
+
+    private void replicate(Product product) {
+        replica.update("MERGE INTO product (id, name, description, quantity, version) KEY(id) VALUES (?, ?, ?, ?, ?)",
+                product.getId(), product.getName(), product.getDescription(), product.getQuantity(), product.getVersion());
+    }
+}
@@ -0,0 +1,116 @@
+package edu.tdd.example.it.tracing;
+
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.repositories.ProductRepository;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "products.tracing.synchronous-export=true")
+@AutoConfigureMockMvc
+@ExtendWith({SpringExtension.class})
+public class ProductTracingIntegrationTest {
+
+    private static final AttributeKey<Long> PRODUCT_ID = AttributeKey.longKey("product.id");
+
+    private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("product.outcome");
+
+    @TestConfiguration
+    static class InMemoryExporterConfiguration {
+
+        @Bean
+        public SpanExporter spanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InMemorySpanExporter spanExporter;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setup() {
+        productRepository.save(new Product(1, "First Product", "First Product Description", 8, 1));
+        spanExporter.reset();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Test spans of a product found - GET /products/1")
+    public void testGetProductIsTracedThroughEachLayer() throws Exception {
+
+        // perform GET Request
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}", 1))
+                .andExpect(status().isOk());
+
+        // validate one span per layer, nested under the request span
+        SpanData request = span("GET /products/{id}");
+        SpanData controller = span("ProductController.getProduct");
+        SpanData service = span("ProductService.findById");
+        SpanData repository = span("ProductRepository.findProductById");
+        SpanData checkout = span("DataSource.getConnection");
+
+        Assertions.assertEquals(request.getSpanId(), controller.getParentSpanId());
+        Assertions.assertEquals(controller.getSpanId(), service.getParentSpanId());
+        Assertions.assertEquals(service.getSpanId(), repository.getParentSpanId());
+        Assertions.assertEquals(repository.getSpanId(), checkout.getParentSpanId());
+
+        // validate product id and outcome attributes
+        Assertions.assertEquals(200L, request.getAttributes().get(AttributeKey.longKey("http.status_code")));
+        Assertions.assertEquals(1L, controller.getAttributes().get(PRODUCT_ID));
+        Assertions.assertEquals("ok", controller.getAttributes().get(OUTCOME));
+        Assertions.assertEquals(1L, service.getAttributes().get(PRODUCT_ID));
+        Assertions.assertEquals("ok", repository.getAttributes().get(OUTCOME));
+    }
+
+    @Test
+    @DisplayName("Test spans of a product not found - GET /products/100")
+    public void testProductNotFoundOutcome() throws Exception {
+
+        // perform GET Request
+        mockMvc.perform(MockMvcRequestBuilders.get("/products/{id}", 100))
+                .andExpect(status().isNotFound());
+
+        // validate the outcome is recorded at each layer
+        Assertions.assertEquals("not_found", span("GET /products/{id}").getAttributes().get(OUTCOME));
+        Assertions.assertEquals("not_found", span("ProductController.getProduct").getAttributes().get(OUTCOME));
+        Assertions.assertEquals("not_found", span("ProductService.findById").getAttributes().get(OUTCOME));
+        Assertions.assertEquals(100L, span("ProductService.findById").getAttributes().get(PRODUCT_ID));
+    }
+
+    private SpanData span(String name) {
+        List<SpanData> spans = spanExporter.getFinishedSpanItems();
+        return spans.stream()
+                .filter(span -> span.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No span " + name + " in " + spans));
+    }
+}
@@ -0,0 +1,115 @@
+package edu.tdd.example.it.warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "products.warmup.requests=200",
+        "products.warmup.threads=2",
+        "products.warmup.max-duration=30s"
+})
+@ExtendWith({SpringExtension.class})
+public class WarmUpIntegrationTest {
+
+    @Autowired
+    private WarmUpRequests warmUpRequests;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Test warm-up finishes before the instance accepts traffic")
+    public void testWarmUpBeforeAcceptingTraffic() {
+        // validate every warm-up request was served before readiness changed
+        Assertions.assertEquals(200, warmUpRequests.countWhenReady.get());
+        // validate the instance refused traffic while they were served
+        Assertions.assertEquals(Collections.singleton(ReadinessState.REFUSING_TRAFFIC), warmUpRequests.readinessSeen);
+    }
+
+    @Test
+    @DisplayName("Test liveness and readiness probes report up once started - GET /actuator/health/{probe}")
+    public void testProbesUp() throws Exception {
+        for(String probe : new String[] {"liveness", "readiness"}) {
+            ResponseEntity<String> response = restTemplate.getForEntity("/actuator/health/{probe}", String.class, probe);
+
+            Assertions.assertEquals(HttpStatus.OK, response.getStatusCode(), probe);
+            // the probe groups only exist while they name the indicators registered by Boot
+            JsonNode health = objectMapper.readTree(response.getBody());
+            Assertions.assertEquals("UP", health.path("status").asText(), probe);
+        }
+    }
+
+    /**
+     * Counts the requests reaching the product endpoints and the readiness they were served with
+     */
+    static class WarmUpRequests extends OncePerRequestFilter implements ApplicationListener<AvailabilityChangeEvent<?>> {
+
+        private final ApplicationAvailability availability;
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private final AtomicInteger countWhenReady = new AtomicInteger(-1);
+
+        private final Set<Object> readinessSeen = ConcurrentHashMap.newKeySet();
+
+        WarmUpRequests(ApplicationAvailability availability) {
+            this.availability = availability;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            if(request.getRequestURI().startsWith("/products")) {
+                readinessSeen.add(availability.getReadinessState());
+                count.incrementAndGet();
+            }
+            chain.doFilter(request, response);
+        }
+
+        @Override
+        public void onApplicationEvent(AvailabilityChangeEvent<?> event) {
+            if(event.getState() == ReadinessState.ACCEPTING_TRAFFIC) {
+                countWhenReady.compareAndSet(-1, count.get());
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class WarmUpRequestsConfiguration {
+
+        @Bean
+        public WarmUpRequests warmUpRequests(ApplicationAvailability availability) {
+            return new WarmUpRequests(availability);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package edu.tdd.example.perf;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses key=value benchmark arguments.
+ */
+public final class BenchmarkArgs {
+
+    private final Map<String,String> values = new HashMap<>();
+
+    public BenchmarkArgs(String[] args) {
+        for(String arg : args) {
+            int separator = arg.indexOf('=');
+            if(separator > 0) {
+                values.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+        }
+    }
+
+    public String get(String key, String defaultValue) {
+        return values.getOrDefault(key, defaultValue);
+    }
+
+    public int getInt(String key, int defaultValue) {
+        return values.containsKey(key) ? Integer.parseInt(values.get(key)) : defaultValue;
+    }
+}
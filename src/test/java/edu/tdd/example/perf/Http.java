@@ -0,0 +1,70 @@
+package edu.tdd.example.perf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Minimal blocking HTTP/1.1 client for benchmarks, built on HttpURLConnection
+ * so keep-alive connections are pooled by the JDK.
+ */
+public final class Http {
+
+    private Http() {
+    }
+
+    public static Response get(String url) throws IOException {
+        return send("GET", url, null, Collections.emptyMap());
+    }
+
+    public static Response send(String method, String url, String json, Map<String,String> headers) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(1000);
+        connection.setReadTimeout(10000);
+        headers.forEach(connection::setRequestProperty);
+
+        if(json != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(json.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        // drain the body fully so the connection goes back to the keep-alive pool
+        return new Response(status, in != null ? readFully(in) : "");
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        try (InputStream body = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while((read = body.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    public static final class Response {
+
+        public final int status;
+
+        public final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
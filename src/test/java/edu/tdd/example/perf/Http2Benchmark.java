@@ -0,0 +1,133 @@
+package edu.tdd.example.perf;
+
+import edu.tdd.example.SpringTddExampleApplication;
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.repositories.ProductRepository;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency of GET /products/{id} from many concurrent clients over the http2 profile, by connection style:
+ * <ul>
+ *     <li>http1-close - a new HTTP/1.1 connection per request, as the gateway does today</li>
+ *     <li>http1-keepalive - pooled HTTP/1.1 connections, one per concurrent client</li>
+ *     <li>h2c - all clients multiplexed as streams over one cleartext HTTP/2 connection</li>
+ * </ul>
+ * Arguments (all optional): clients (64), seconds per measurement (20), warmup seconds (5), products (10000).
+ */
+public class Http2Benchmark {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkArgs arguments = new BenchmarkArgs(args);
+        int clients = arguments.getInt("clients", 64);
+        int seconds = arguments.getInt("seconds", 20);
+        int warmup = arguments.getInt("warmup", 5);
+        int products = arguments.getInt("products", 10_000);
+
+        ConfigurableApplicationContext context = SpringApplication.run(SpringTddExampleApplication.class,
+                "--spring.profiles.active=http2",
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:http2-benchmark;DB_CLOSE_DELAY=-1",
+                "--logging.level.root=WARN");
+        try {
+            seed(context.getBean(ProductRepository.class), products);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/products/";
+
+            System.out.printf("%-16s %10s %8s %10s %10s %10s%n", "client", "req/s", "errors", "p50 ms", "p99 ms", "max ms");
+            for(String style : new String[]{"http1-close", "http1-keepalive", "h2c"}) {
+                OkHttpClient client = client(style, clients);
+                run(client, style, baseUrl, clients, warmup, products);
+                Result result = run(client, style, baseUrl, clients, seconds, products);
+                System.out.printf("%-16s %10.0f %8d %10.2f %10.2f %10.2f%n", style, result.latencies.count() / (double) seconds,
+                        result.errors.sum(), result.latencies.percentileMillis(50), result.latencies.percentileMillis(99),
+                        result.latencies.percentileMillis(100));
+                client.dispatcher().executorService().shutdown();
+                client.connectionPool().evictAll();
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static OkHttpClient client(String style, int clients) {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        switch(style) {
+            case "h2c":
+                return builder.protocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE)).build();
+            case "http1-keepalive":
+                return builder.protocols(Collections.singletonList(Protocol.HTTP_1_1))
+                        .connectionPool(new ConnectionPool(clients, 5, TimeUnit.MINUTES))
+                        .build();
+            default:
+                return builder.protocols(Collections.singletonList(Protocol.HTTP_1_1))
+                        .connectionPool(new ConnectionPool(0, 1, TimeUnit.SECONDS))
+                        .build();
+        }
+    }
+
+    private static Result run(OkHttpClient client, String style, String baseUrl, int clients, int seconds, int products)
+            throws InterruptedException {
+        Result result = new Result();
+        boolean close = style.equals("http1-close");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        for(int worker = 0; worker < clients; worker++) {
+            workers.submit(() -> {
+                while(System.nanoTime() < deadline) {
+                    Request.Builder request = new Request.Builder()
+                            .url(baseUrl + (1 + ThreadLocalRandom.current().nextInt(products)));
+                    if(close) {
+                        request.header("Connection", "close");
+                    }
+                    long start = System.nanoTime();
+                    try(Response response = client.newCall(request.build()).execute()) {
+                        response.body().bytes();
+                        if(response.code() == 200) {
+                            result.latencies.record(System.nanoTime() - start);
+                        } else {
+                            result.errors.increment();
+                        }
+                    } catch(IOException e) {
+                        result.errors.increment();
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+        return result;
+    }
+
+    private static void seed(ProductRepository productRepository, int products) {
+        List<Product> batch = new ArrayList<>();
+        for(int id = 1; id <= products; id++) {
+            batch.add(new Product(id, "Product " + id, "Description of product " + id, 100, 1));
+            if(batch.size() == 1000 || id == products) {
+                productRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static class Result {
+
+        private final LatencyRecorder latencies = new LatencyRecorder();
+
+        private final LongAdder errors = new LongAdder();
+    }
+}
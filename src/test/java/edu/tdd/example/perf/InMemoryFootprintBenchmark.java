@@ -0,0 +1,98 @@
+package edu.tdd.example.perf;
+
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.repositories.inmemory.CompactProductRepository;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Heap held by the products of the inmemory profile's compact repository, compared to the same
+ * products in an in-memory H2 table with the schema JPA generates. H2 rows are inserted in JDBC
+ * batches, so H2's footprint is a lower bound: the JPA setup also keeps a history row per write.
+ *
+ * Run with a heap large enough for H2, e.g. -Dperf.jvmArgs=-Xmx3g. Arguments (all optional):
+ * products (1000000), descriptions - distinct descriptions shared by the products (1000).
+ */
+public class InMemoryFootprintBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkArgs arguments = new BenchmarkArgs(args);
+        int products = arguments.getInt("products", 1_000_000);
+        int descriptions = arguments.getInt("descriptions", 1000);
+
+        long before = usedHeap();
+        long start = System.nanoTime();
+        CompactProductRepository compact = new CompactProductRepository(1024);
+        List<Product> batch = new ArrayList<>();
+        for(int id = 1; id <= products; id++) {
+            batch.add(product(id, descriptions));
+            if(batch.size() == 10_000 || id == products) {
+                compact.saveAll(batch);
+                batch.clear();
+            }
+        }
+        long compactLoadMillis = (System.nanoTime() - start) / 1_000_000;
+        long compactBytes = usedHeap() - before;
+        report("compact", products, compactBytes, compactLoadMillis);
+        if(compact.count() != products) {
+            throw new IllegalStateException("expected " + products + " products, found " + compact.count());
+        }
+        compact = null;
+
+        before = usedHeap();
+        start = System.nanoTime();
+        try(Connection connection = DriverManager.getConnection("jdbc:h2:mem:footprint;DB_CLOSE_DELAY=-1", "sa", "")) {
+            insertIntoH2(connection, products, descriptions);
+            long h2LoadMillis = (System.nanoTime() - start) / 1_000_000;
+            long h2Bytes = usedHeap() - before;
+            report("h2", products, h2Bytes, h2LoadMillis);
+            System.out.printf("compact holds the products in %.1f%% of H2's heap%n", 100.0 * compactBytes / h2Bytes);
+            connection.createStatement().execute("SHUTDOWN");
+        }
+    }
+
+    private static void insertIntoH2(Connection connection, int products, int descriptions) throws SQLException {
+        connection.createStatement().execute("create table product (id integer not null, description varchar(255), "
+                + "name varchar(255), quantity integer, version integer, primary key (id))");
+        connection.setAutoCommit(false);
+        try(PreparedStatement insert = connection.prepareStatement(
+                "insert into product (description, name, quantity, version, id) values (?, ?, ?, ?, ?)")) {
+            for(int id = 1; id <= products; id++) {
+                Product product = product(id, descriptions);
+                insert.setString(1, product.getDescription());
+                insert.setString(2, product.getName());
+                insert.setInt(3, product.getQuantity());
+                insert.setInt(4, product.getVersion());
+                insert.setInt(5, id);
+                insert.addBatch();
+                if(id % 10_000 == 0 || id == products) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+    }
+
+    private static Product product(int id, int descriptions) {
+        return new Product(id, "Product " + id, "Description of product family " + (id % descriptions), id % 500, 1);
+    }
+
+    private static void report(String store, int products, long bytes, long loadMillis) {
+        System.out.printf("%-8s %,d products in %,d ms, %,d MB heap, %.1f bytes per product%n",
+                store, products, loadMillis, bytes / (1024 * 1024), bytes / (double) products);
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for(int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
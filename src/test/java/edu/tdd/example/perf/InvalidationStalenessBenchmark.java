@@ -0,0 +1,112 @@
+package edu.tdd.example.perf;
+
+import edu.tdd.example.invalidation.InJvmInvalidationBus;
+import edu.tdd.example.invalidation.InJvmInvalidationHub;
+import edu.tdd.example.invalidation.MulticastInvalidationBus;
+import edu.tdd.example.invalidation.ProductInvalidation;
+import edu.tdd.example.invalidation.ProductInvalidationBus;
+
+import java.io.Closeable;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Staleness window of the invalidation transports under write load: the time from publishing
+ * an invalidation to another instance receiving it, i.e. how long that instance may serve a stale
+ * cached product. Instances are simulated by several buses in this JVM; multicast goes over loopback.
+ * Arguments (all optional): nodes (4), writers (4), seconds per measurement (10), products (1000),
+ * rates as total writes per second (1000,10000,50000).
+ */
+public class InvalidationStalenessBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkArgs arguments = new BenchmarkArgs(args);
+        int nodes = arguments.getInt("nodes", 4);
+        int writers = arguments.getInt("writers", 4);
+        int seconds = arguments.getInt("seconds", 10);
+        int products = arguments.getInt("products", 1000);
+        String[] rates = arguments.get("rates", "1000,10000,50000").split(",");
+
+        System.out.printf("%-10s %9s %10s %8s %10s %10s %10s%n", "transport", "writes/s", "delivered", "lost %", "p50 ms", "p99 ms", "max ms");
+        for(String transport : new String[]{"in-jvm", "multicast"}) {
+            for(String rate : rates) {
+                run(transport, nodes, writers, seconds, products, Integer.parseInt(rate));
+            }
+        }
+    }
+
+    private static void run(String transport, int nodeCount, int writers, int seconds, int products, int rate) throws Exception {
+        AtomicIntegerArray versions = new AtomicIntegerArray(products);
+        Map<Long, Long> publishedAt = new ConcurrentHashMap<>();
+        LatencyRecorder staleness = new LatencyRecorder();
+        LongAdder published = new LongAdder();
+
+        List<ProductInvalidationBus> nodes = new ArrayList<>();
+        InJvmInvalidationHub hub = new InJvmInvalidationHub();
+        InetSocketAddress group = new InetSocketAddress(InetAddress.getByName("239.255.27.98"), 44698);
+        NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+        for(int node = 0; node < nodeCount; node++) {
+            ProductInvalidationBus bus = transport.equals("in-jvm")
+                    ? new InJvmInvalidationBus(hub)
+                    : new MulticastInvalidationBus(group, loopback, 0);
+            int self = node;
+            bus.subscribe(invalidation -> {
+                Long sentAt = publishedAt.get(key(invalidation));
+                // the publishing node sees its own write at once, only peers can be stale
+                if(sentAt != null && (sentAt & 0xFF) != self) {
+                    staleness.record(System.nanoTime() - (sentAt >>> 8));
+                }
+            });
+            nodes.add(bus);
+        }
+
+        long interval = TimeUnit.SECONDS.toNanos(1) * writers / rate;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(writers);
+        for(int writer = 0; writer < writers; writer++) {
+            int node = writer % nodeCount;
+            ProductInvalidationBus bus = nodes.get(node);
+            workers.submit(() -> {
+                long next = System.nanoTime();
+                while(next < deadline) {
+                    LockSupport.parkNanos(next - System.nanoTime());
+                    int id = ThreadLocalRandom.current().nextInt(products);
+                    ProductInvalidation invalidation = new ProductInvalidation(id, versions.incrementAndGet(id));
+                    // publish time and publishing node packed in one value
+                    publishedAt.put(key(invalidation), System.nanoTime() << 8 | node);
+                    bus.publish(invalidation);
+                    published.increment();
+                    next += interval;
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+        // let in-flight datagrams arrive
+        Thread.sleep(1000);
+        for(ProductInvalidationBus bus : nodes) {
+            ((Closeable) bus).close();
+        }
+
+        long expected = published.sum() * (nodeCount - 1);
+        double lost = expected == 0 ? 0 : 100.0 * (expected - staleness.count()) / expected;
+        System.out.printf("%-10s %9.0f %10d %8.2f %10.3f %10.3f %10.3f%n", transport, published.sum() / (double) seconds,
+                staleness.count(), lost, staleness.percentileMillis(50), staleness.percentileMillis(99), staleness.percentileMillis(100));
+    }
+
+    private static long key(ProductInvalidation invalidation) {
+        return (long) invalidation.getProductId() << 32 | invalidation.getVersion();
+    }
+}
@@ -0,0 +1,64 @@
+package edu.tdd.example.perf;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records request latencies and reports percentiles.
+ * Shared by load tests and benchmarks; safe for concurrent recording.
+ */
+public class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+
+    private int size;
+
+    public synchronized void record(long nanos) {
+        if(size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    /**
+     * Times the given call and records its latency
+     * @param call to time
+     */
+    public void time(Runnable call) {
+        long start = System.nanoTime();
+        try {
+            call.run();
+        } finally {
+            record(System.nanoTime() - start);
+        }
+    }
+
+    public synchronized int count() {
+        return size;
+    }
+
+    /**
+     * Gets a latency percentile
+     * @param percentile between 0 and 100
+     * @return latency at the percentile in milliseconds
+     */
+    public synchronized double percentileMillis(double percentile) {
+        if(size == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(index, size - 1))] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public synchronized void reset() {
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms",
+                count(), percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(100));
+    }
+}
@@ -0,0 +1,292 @@
+package edu.tdd.example.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tdd.example.SpringTddExampleApplication;
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.perf.TrafficMix.Operation;
+import edu.tdd.example.repositories.ProductRepository;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test of the /products API against a seeded in-memory database.
+ *
+ * Starts the application on a random port, seeds it with the configured number of products
+ * and replays each traffic mix for a fixed time after a warm-up. Throughput, latency
+ * percentiles per operation, the 409 conflict rate of PUTs and the rate of other errors
+ * are printed and written to target/load-reports/&lt;label&gt;-&lt;time&gt;.md and .csv,
+ * to be compared between versions. Arguments (all optional):
+ * <ul>
+ *     <li>products - products seeded before the run, default 10000</li>
+ *     <li>mixes - comma separated {@link TrafficMix} names, default all</li>
+ *     <li>threads - concurrent clients, default 32</li>
+ *     <li>seconds - measured duration of each mix, default 30</li>
+ *     <li>warmup - unmeasured seconds before each mix, default 5</li>
+ *     <li>hotProducts - products contended by CONTENDED_PUT, default 5</li>
+ *     <li>label - name of this version in the report, default current</li>
+ * </ul>
+ */
+public class ProductLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+
+    private final int products;
+
+    private final int hotProducts;
+
+    private final AtomicInteger nextId;
+
+    private ProductLoadTest(String baseUrl, int products, int hotProducts) {
+        this.baseUrl = baseUrl;
+        this.products = products;
+        this.hotProducts = hotProducts;
+        this.nextId = new AtomicInteger(products + 1);
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkArgs arguments = new BenchmarkArgs(args);
+        int products = arguments.getInt("products", 10_000);
+        int threads = arguments.getInt("threads", 32);
+        int seconds = arguments.getInt("seconds", 30);
+        int warmup = arguments.getInt("warmup", 5);
+        String label = arguments.get("label", "current");
+
+        // keep one pooled keep-alive connection per client thread
+        System.setProperty("http.maxConnections", Integer.toString(threads));
+
+        ConfigurableApplicationContext context = SpringApplication.run(SpringTddExampleApplication.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-test;DB_CLOSE_DELAY=-1",
+                "--spring.jpa.properties.hibernate.jdbc.batch_size=500",
+                "--logging.level.root=WARN");
+        try {
+            seed(context.getBean(ProductRepository.class), products);
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/products";
+            ProductLoadTest loadTest = new ProductLoadTest(baseUrl, products, arguments.getInt("hotProducts", 5));
+
+            List<MixResult> results = new ArrayList<>();
+            for(String mix : arguments.get("mixes", "READ_HEAVY,WRITE_HEAVY,CONTENDED_PUT").split(",")) {
+                TrafficMix trafficMix = TrafficMix.valueOf(mix.trim());
+                loadTest.run(trafficMix, threads, warmup);
+                MixResult result = loadTest.run(trafficMix, threads, seconds);
+                results.add(result);
+                System.out.println(result);
+            }
+            writeReport(label, products, threads, seconds, results);
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void seed(ProductRepository productRepository, int products) {
+        List<Product> batch = new ArrayList<>();
+        for(int id = 1; id <= products; id++) {
+            batch.add(new Product(id, "Product " + id, "Description of product " + id, 100, 1));
+            if(batch.size() == 1000 || id == products) {
+                productRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private MixResult run(TrafficMix mix, int threads, int seconds) throws InterruptedException {
+        MixResult result = new MixResult(mix, seconds);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        for(int client = 0; client < threads; client++) {
+            clients.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while(System.nanoTime() < deadline) {
+                    Operation operation = mix.pick(random.nextInt(100));
+                    try {
+                        result.record(operation, perform(operation, random));
+                    } catch (IOException e) {
+                        result.record(operation, new Timed(-1, 0));
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        clients.awaitTermination(seconds + 60, TimeUnit.SECONDS);
+        return result;
+    }
+
+    private Timed perform(Operation operation, ThreadLocalRandom random) throws IOException {
+        switch (operation) {
+            case GET_PRODUCT:
+                return timed(() -> Http.get(baseUrl + "/" + (1 + random.nextInt(products))));
+            case GET_STATS:
+                return timed(() -> Http.get(baseUrl + "/stats"));
+            case CREATE_PRODUCT:
+                int id = nextId.getAndIncrement();
+                return timed(() -> Http.send("POST", baseUrl, productJson(id, 10), Collections.emptyMap()));
+            case UPDATE_PRODUCT:
+                return readModifyWrite(1 + random.nextInt(products), random);
+            case UPDATE_HOT_PRODUCT:
+                return readModifyWrite(1 + random.nextInt(hotProducts), random);
+            default:
+                throw new IllegalArgumentException(operation.name());
+        }
+    }
+
+    /**
+     * Reads the product's version and PUTs a new quantity with If-Match, timing only the PUT
+     */
+    private Timed readModifyWrite(int id, ThreadLocalRandom random) throws IOException {
+        Http.Response current = Http.get(baseUrl + "/" + id);
+        if(current.status != 200) {
+            return new Timed(current.status, 0);
+        }
+        int version = MAPPER.readTree(current.body).path("version").asInt();
+        String json = productJson(id, random.nextInt(1000));
+        return timed(() -> Http.send("PUT", baseUrl + "/" + id, json,
+                Collections.singletonMap("If-Match", Integer.toString(version))));
+    }
+
+    private static String productJson(int id, int quantity) {
+        return "{\"id\":" + id + ",\"name\":\"Product " + id + "\",\"description\":\"Load test product\",\"quantity\":" + quantity + "}";
+    }
+
+    private static Timed timed(HttpCall call) throws IOException {
+        long start = System.nanoTime();
+        int status = call.execute().status;
+        return new Timed(status, System.nanoTime() - start);
+    }
+
+    private static void writeReport(String label, int products, int threads, int seconds, List<MixResult> results) throws IOException {
+        File directory = new File("target/load-reports");
+        Files.createDirectories(directory.toPath());
+        String name = label + "-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+
+        try (PrintWriter markdown = new PrintWriter(new File(directory, name + ".md"), StandardCharsets.UTF_8.name());
+             PrintWriter csv = new PrintWriter(new File(directory, name + ".csv"), StandardCharsets.UTF_8.name())) {
+            markdown.printf("# Load test %s%n%n%d products, %d clients, %d s per mix%n%n", label, products, threads, seconds);
+            markdown.println("| mix | operation | requests/s | p50 ms | p90 ms | p99 ms | max ms | 409 rate | error rate |");
+            markdown.println("|---|---|---:|---:|---:|---:|---:|---:|---:|");
+            csv.println("label,mix,operation,requests_per_second,p50_ms,p90_ms,p99_ms,max_ms,conflict_rate,error_rate");
+            for(MixResult result : results) {
+                for(Map.Entry<Operation, OperationStats> entry : result.operations.entrySet()) {
+                    OperationStats stats = entry.getValue();
+                    markdown.printf("| %s | %s | %.0f | %.2f | %.2f | %.2f | %.2f | %.2f%% | %.2f%% |%n",
+                            result.mix, entry.getKey(), stats.throughput(result.seconds),
+                            stats.latencies.percentileMillis(50), stats.latencies.percentileMillis(90),
+                            stats.latencies.percentileMillis(99), stats.latencies.percentileMillis(100),
+                            stats.rate(stats.conflicts), stats.rate(stats.errors));
+                    csv.printf("%s,%s,%s,%.0f,%.2f,%.2f,%.2f,%.2f,%.4f,%.4f%n",
+                            label, result.mix, entry.getKey(), stats.throughput(result.seconds),
+                            stats.latencies.percentileMillis(50), stats.latencies.percentileMillis(90),
+                            stats.latencies.percentileMillis(99), stats.latencies.percentileMillis(100),
+                            stats.rate(stats.conflicts) / 100, stats.rate(stats.errors) / 100);
+                }
+            }
+        }
+        System.out.println("report written to " + new File(directory, name + ".md"));
+    }
+
+    private interface HttpCall {
+        Http.Response execute() throws IOException;
+    }
+
+    private static final class Timed {
+
+        private final int status;
+
+        private final long nanos;
+
+        Timed(int status, long nanos) {
+            this.status = status;
+            this.nanos = nanos;
+        }
+    }
+
+    private static final class OperationStats {
+
+        private final LatencyRecorder latencies = new LatencyRecorder();
+
+        private final LongAdder requests = new LongAdder();
+
+        private final LongAdder conflicts = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        double throughput(int seconds) {
+            return requests.sum() / (double) seconds;
+        }
+
+        double rate(LongAdder count) {
+            long total = requests.sum();
+            return total == 0 ? 0 : 100.0 * count.sum() / total;
+        }
+    }
+
+    private static final class MixResult {
+
+        private final TrafficMix mix;
+
+        private final int seconds;
+
+        private final Map<Operation, OperationStats> operations = new EnumMap<>(Operation.class);
+
+        MixResult(TrafficMix mix, int seconds) {
+            this.mix = mix;
+            this.seconds = seconds;
+            for(Operation operation : Operation.values()) {
+                if(weighted(mix, operation)) {
+                    operations.put(operation, new OperationStats());
+                }
+            }
+        }
+
+        private static boolean weighted(TrafficMix mix, Operation operation) {
+            for(int roll = 0; roll < 100; roll++) {
+                if(mix.pick(roll) == operation) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void record(Operation operation, Timed timed) {
+            OperationStats stats = operations.get(operation);
+            stats.requests.increment();
+            if(timed.status == 409) {
+                stats.conflicts.increment();
+            } else if(timed.status < 200 || timed.status >= 300) {
+                stats.errors.increment();
+            }
+            if(timed.nanos > 0) {
+                stats.latencies.record(timed.nanos);
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder summary = new StringBuilder(mix.name()).append('\n');
+            operations.forEach((operation, stats) -> summary.append(String.format(
+                    "  %-18s %8.0f req/s  %s  409=%.2f%% errors=%.2f%%%n", operation, stats.throughput(seconds),
+                    stats.latencies, stats.rate(stats.conflicts), stats.rate(stats.errors))));
+            return summary.toString();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package edu.tdd.example.perf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import edu.tdd.example.controllers.ProductResponseHeaders;
+import edu.tdd.example.domain.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building and serialising a GET /products/{id} response, before and after
+ * precomputed headers and Afterburner. The body is streamed to a discarding output stream,
+ * as the message converter streams it to the servlet response. Run with -prof gc and
+ * compare gc.alloc.rate.norm, the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductReadPathBenchmark {
+
+    private final Product product = new Product(42, "First Product", "First Product Description", 8, 1);
+
+    private final ObjectMapper reflectiveMapper = new ObjectMapper();
+
+    private final ObjectMapper afterburnerMapper = new ObjectMapper().registerModule(new AfterburnerModule());
+
+    private final ProductResponseHeaders headers = new ProductResponseHeaders(10_000);
+
+    private final OutputStream responseStream = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Benchmark
+    public ResponseEntity<?> before() throws Exception {
+        ResponseEntity<?> response;
+        try {
+            response = ResponseEntity
+                    .ok()
+                    .eTag(Integer.toString(product.getId()))
+                    .location(new URI("/products/" + product.getId()))
+                    .body(product);
+        } catch (URISyntaxException e) {
+            response = ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+        reflectiveMapper.writeValue(responseStream, response.getBody());
+        return response;
+    }
+
+    @Benchmark
+    public ResponseEntity<?> after() throws Exception {
+        ResponseEntity<?> response = new ResponseEntity<>(product, headers.forProduct(product.getId()), HttpStatus.OK);
+        afterburnerMapper.writeValue(responseStream, response.getBody());
+        return response;
+    }
+}
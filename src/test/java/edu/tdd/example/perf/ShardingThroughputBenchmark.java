@@ -0,0 +1,84 @@
+package edu.tdd.example.perf;
+
+import com.zaxxer.hikari.HikariDataSource;
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.repositories.sharding.HashShardRouter;
+import edu.tdd.example.repositories.sharding.ProductShard;
+import edu.tdd.example.repositories.sharding.ShardedProductRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write and point-read throughput of the sharded repository for 1, 2, 4 and 8 embedded H2 shards.
+ * Arguments (all optional): threads (16), seconds per measurement (10), products (100000).
+ */
+public class ShardingThroughputBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkArgs arguments = new BenchmarkArgs(args);
+        int threads = arguments.getInt("threads", 16);
+        int seconds = arguments.getInt("seconds", 10);
+        int products = arguments.getInt("products", 100_000);
+
+        System.out.printf("%-7s %14s %14s %14s%n", "shards", "writes/s", "reads/s", "findAll ms");
+        for(int shards : new int[]{1, 2, 4, 8}) {
+            run(shards, threads, seconds, products);
+        }
+    }
+
+    private static void run(int shardCount, int threads, int seconds, int products) throws Exception {
+        List<HikariDataSource> dataSources = new ArrayList<>();
+        List<ProductShard> shards = new ArrayList<>();
+        for(int shard = 0; shard < shardCount; shard++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:mem:bench-" + shardCount + "-" + shard + ";DB_CLOSE_DELAY=-1");
+            dataSource.setMaximumPoolSize(threads);
+            dataSources.add(dataSource);
+            shards.add(new ProductShard(dataSource));
+        }
+        ExecutorService fanOut = Executors.newFixedThreadPool(shardCount);
+        ShardedProductRepository repository = new ShardedProductRepository(shards, new HashShardRouter(shardCount), fanOut);
+
+        try {
+            double writes = measure(threads, seconds, () -> {
+                int id = ThreadLocalRandom.current().nextInt(products);
+                repository.save(new Product(id, "Product " + id, "Description", id % 100, 1));
+            });
+            double reads = measure(threads, seconds, () ->
+                    repository.findProductById(ThreadLocalRandom.current().nextInt(products)));
+
+            long start = System.nanoTime();
+            repository.findAll();
+            long findAllMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            System.out.printf("%-7d %14.0f %14.0f %14d%n", shardCount, writes, reads, findAllMillis);
+        } finally {
+            repository.deleteAll();
+            fanOut.shutdown();
+            dataSources.forEach(HikariDataSource::close);
+        }
+    }
+
+    private static double measure(int threads, int seconds, Runnable operation) throws InterruptedException {
+        LongAdder operations = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        for(int i = 0; i < threads; i++) {
+            workers.submit(() -> {
+                while(System.nanoTime() < deadline) {
+                    operation.run();
+                    operations.increment();
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 30, TimeUnit.SECONDS);
+        return operations.sum() / (double) seconds;
+    }
+}
@@ -0,0 +1,95 @@
+package edu.tdd.example.perf;
+
+import edu.tdd.example.SpringTddExampleApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures time from JVM launch to the first successful GET /products/{id}.
+ *
+ * Each run starts a fresh JVM, polls until the server answers, creates product 1
+ * and stops the clock at the first 200 for it. Arguments (all optional):
+ * <ul>
+ *     <li>runs - number of launches, default 5</li>
+ *     <li>profiles - Spring profiles of the application, e.g. faststart</li>
+ *     <li>jvmArgs - space separated JVM options, e.g. -XX:SharedArchiveFile=target/app-cds.jsa</li>
+ *     <li>classpath - application classpath, defaults to the benchmark's own</li>
+ * </ul>
+ */
+public class StartupBenchmark {
+
+    private static final String PRODUCT = "{\"id\":1,\"name\":\"Product\",\"description\":\"Description\",\"quantity\":1}";
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkArgs arguments = new BenchmarkArgs(args);
+        int runs = arguments.getInt("runs", 5);
+
+        List<Long> timings = new ArrayList<>();
+        for(int run = 1; run <= runs; run++) {
+            long millis = launchAndMeasure(arguments);
+            timings.add(millis);
+            System.out.printf("run %d: first successful GET /products/1 after %d ms%n", run, millis);
+        }
+
+        Collections.sort(timings);
+        System.out.printf("startup: min=%d ms median=%d ms max=%d ms%n",
+                timings.get(0), timings.get(timings.size() / 2), timings.get(timings.size() - 1));
+    }
+
+    private static long launchAndMeasure(BenchmarkArgs arguments) throws Exception {
+        int port = freePort();
+        String baseUrl = "http://localhost:" + port + "/products";
+
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        String jvmArgs = arguments.get("jvmArgs", "");
+        if(!jvmArgs.isEmpty()) {
+            command.addAll(Arrays.asList(jvmArgs.split(" ")));
+        }
+        command.add("-cp");
+        command.add(arguments.get("classpath", System.getProperty("java.class.path")));
+        command.add(SpringTddExampleApplication.class.getName());
+        command.add("--server.port=" + port);
+        command.add("--spring.profiles.active=" + arguments.get("profiles", "default"));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.appendTo(new File("target/startup-benchmark.log")))
+                .start();
+        try {
+            while(true) {
+                try {
+                    Http.Response response = Http.get(baseUrl + "/1");
+                    if(response.status == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                    if(response.status == 404) {
+                        Http.send("POST", baseUrl, PRODUCT, Collections.emptyMap());
+                    }
+                } catch (ConnectException e) {
+                    if(!process.isAlive()) {
+                        throw new IllegalStateException("application exited with " + process.exitValue());
+                    }
+                    Thread.sleep(5);
+                }
+            }
+        } finally {
+            process.destroy();
+            process.waitFor(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
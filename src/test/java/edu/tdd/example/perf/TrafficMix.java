@@ -0,0 +1,50 @@
+package edu.tdd.example.perf;
+
+/**
+ * Weighted mixes of product operations replayed by {@link ProductLoadTest}.
+ */
+public enum TrafficMix {
+
+    /**
+     * Catalogue browsing: mostly point reads, some stock updates and dashboard stats
+     */
+    READ_HEAVY(90, 0, 8, 0, 2),
+
+    /**
+     * Catalogue maintenance: new products and updates spread over the whole catalogue
+     */
+    WRITE_HEAVY(30, 30, 40, 0, 0),
+
+    /**
+     * Checkout burst: read-modify-write PUTs racing on a handful of hot products
+     */
+    CONTENDED_PUT(0, 0, 0, 100, 0);
+
+    private final int[] weights;
+
+    TrafficMix(int getProduct, int createProduct, int updateProduct, int updateHotProduct, int getStats) {
+        this.weights = new int[]{getProduct, createProduct, updateProduct, updateHotProduct, getStats};
+    }
+
+    /**
+     * Picks the operation for a roll between 0 and 99
+     */
+    public Operation pick(int roll) {
+        int bound = 0;
+        for(Operation operation : Operation.values()) {
+            bound += weights[operation.ordinal()];
+            if(roll < bound) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("weights of " + this + " do not add up to 100");
+    }
+
+    public enum Operation {
+        GET_PRODUCT,
+        CREATE_PRODUCT,
+        UPDATE_PRODUCT,
+        UPDATE_HOT_PRODUCT,
+        GET_STATS
+    }
+}
@@ -0,0 +1,181 @@
+package edu.tdd.example.perf;
+
+import edu.tdd.example.SpringTddExampleApplication;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency of the first requests an instance serves once it reports ready, with and without warm-up.
+ *
+ * A first run creates the products in a file database and reads them with skewed traffic, so its
+ * hot products are saved on shutdown. Each measured run then starts a fresh JVM on that database,
+ * polls /actuator/health/readiness and sends skewed GET /products/{id} traffic as soon as it is up.
+ * Arguments (all optional):
+ * <ul>
+ *     <li>products - products created, default 1000</li>
+ *     <li>hot - products taking 90% of the reads, default 50</li>
+ *     <li>requests - measured requests after ready, default 2000</li>
+ *     <li>clients - concurrent clients, default 8</li>
+ *     <li>runs - measured runs per mode, alternating, default 2</li>
+ *     <li>warmupRequests - requests of the warm-up itself, default 2000</li>
+ * </ul>
+ */
+public class WarmUpBenchmark {
+
+    private static final File DIRECTORY = new File("target/warmup-benchmark").getAbsoluteFile();
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkArgs arguments = new BenchmarkArgs(args);
+        int products = arguments.getInt("products", 1000);
+        int hot = arguments.getInt("hot", 50);
+        int requests = arguments.getInt("requests", 2000);
+        int clients = arguments.getInt("clients", 8);
+        int runs = arguments.getInt("runs", 2);
+        int warmupRequests = arguments.getInt("warmupRequests", 2000);
+
+        System.setProperty("http.maxConnections", Integer.toString(clients));
+        deleteRecursively(DIRECTORY);
+        Files.createDirectories(DIRECTORY.toPath());
+
+        Instance seeding = Instance.start(true, warmupRequests);
+        try {
+            for(int id = 1; id <= products; id++) {
+                Http.send("POST", seeding.baseUrl, "{\"id\":" + id + ",\"name\":\"Product " + id
+                        + "\",\"description\":\"Description\",\"quantity\":100}", Collections.emptyMap());
+            }
+            run(seeding.baseUrl, products, hot, 5000, clients);
+            // let the hot products be refreshed before shutdown saves them
+            Thread.sleep(2000);
+        } finally {
+            seeding.stop();
+        }
+
+        System.out.printf("%-8s %10s %8s %8s %8s %8s%n", "warm-up", "ready ms", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for(int run = 0; run < runs * 2; run++) {
+            boolean warmUp = run % 2 == 1;
+            long launched = System.nanoTime();
+            Instance instance = Instance.start(warmUp, warmupRequests);
+            try {
+                long readyMillis = TimeUnit.NANOSECONDS.toMillis(instance.readyAt - launched);
+                LatencyRecorder latencies = run(instance.baseUrl, products, hot, requests, clients);
+                System.out.printf("%-8s %10d %8.2f %8.2f %8.2f %8.2f%n", warmUp ? "on" : "off", readyMillis,
+                        latencies.percentileMillis(50), latencies.percentileMillis(90),
+                        latencies.percentileMillis(99), latencies.percentileMillis(100));
+            } finally {
+                instance.stop();
+            }
+        }
+    }
+
+    /**
+     * Sends skewed reads: 90% to the hot products, the rest spread over all of them
+     */
+    private static LatencyRecorder run(String baseUrl, int products, int hot, int requests, int clients)
+            throws InterruptedException {
+        LatencyRecorder latencies = new LatencyRecorder();
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        for(int client = 0; client < clients; client++) {
+            executor.submit(() -> {
+                Random random = new Random();
+                while(next.getAndIncrement() < requests) {
+                    int id = random.nextInt(10) < 9 ? 1 + random.nextInt(hot) : 1 + random.nextInt(products);
+                    latencies.time(() -> {
+                        try {
+                            Http.get(baseUrl + "/" + id);
+                        } catch (IOException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.MINUTES);
+        return latencies;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if(children != null) {
+            for(File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static final class Instance {
+
+        private final Process process;
+
+        private final String baseUrl;
+
+        private final long readyAt;
+
+        private Instance(Process process, String baseUrl, long readyAt) {
+            this.process = process;
+            this.baseUrl = baseUrl;
+            this.readyAt = readyAt;
+        }
+
+        static Instance start(boolean warmUp, int warmupRequests) throws Exception {
+            int port = freePort();
+            List<String> command = new ArrayList<>();
+            command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+            command.add("-Xmx1g");
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(SpringTddExampleApplication.class.getName());
+            command.add("--server.port=" + port);
+            command.add("--spring.datasource.url=jdbc:h2:file:" + new File(DIRECTORY, "products").getPath());
+            command.add("--spring.jpa.hibernate.ddl-auto=update");
+            command.add("--products.warmup.enabled=" + warmUp);
+            command.add("--products.warmup.requests=" + warmupRequests);
+            command.add("--products.warmup.hot-products-file=" + new File(DIRECTORY, "hot-products.txt").getPath());
+            command.add("--logging.level.root=WARN");
+            command.add("--logging.level.edu.tdd.example.warmup=INFO");
+
+            Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.appendTo(new File(DIRECTORY, "instances.log")))
+                    .start();
+            String readiness = "http://localhost:" + port + "/actuator/health/readiness";
+            while(true) {
+                try {
+                    if(Http.get(readiness).status == 200) {
+                        return new Instance(process, "http://localhost:" + port + "/products", System.nanoTime());
+                    }
+                } catch (ConnectException e) {
+                    if(!process.isAlive()) {
+                        throw new IllegalStateException("application exited with " + process.exitValue());
+                    }
+                }
+                Thread.sleep(5);
+            }
+        }
+
+        void stop() throws InterruptedException {
+            // a graceful stop, so the hot products are saved
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+
+        private static int freePort() throws IOException {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                return socket.getLocalPort();
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package edu.tdd.example.ut.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tdd.example.audit.AuditLogWriter;
+import edu.tdd.example.audit.AuditRingBuffer;
+import edu.tdd.example.audit.ProductAuditLog;
+import edu.tdd.example.audit.ProductAuditMetrics;
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.events.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ProductAuditLogTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-19T10:15:30Z"), ZoneOffset.UTC);
+
+    @AfterEach
+    public void cleanup() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Test ring buffer keeps every element of concurrent producers in producer order")
+    public void testRingBufferConcurrentProducers() throws Exception {
+        AuditRingBuffer<long[]> buffer = new AuditRingBuffer<>(1024);
+        int producers = 4;
+        int perProducer = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch start = new CountDownLatch(1);
+        for(int producer = 0; producer < producers; producer++) {
+            long id = producer;
+            executor.submit(() -> {
+                start.await();
+                for(long sequence = 0; sequence < perProducer; sequence++) {
+                    while(!buffer.offer(new long[]{id, sequence})) {
+                        Thread.yield();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+
+        // when drained by a single consumer
+        long[] next = new long[producers];
+        int taken = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while(taken < producers * perProducer && System.nanoTime() < deadline) {
+            taken += buffer.drain(element -> {
+                Assertions.assertEquals(next[(int) element[0]]++, element[1]);
+            }, 100);
+        }
+        executor.shutdown();
+
+        // then nothing was lost or reordered per producer
+        Assertions.assertEquals(producers * perProducer, taken);
+    }
+
+    @Test
+    @DisplayName("Test full ring buffer rejects instead of blocking")
+    public void testFullRingBufferRejects() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        for(int element = 0; element < 4; element++) {
+            Assertions.assertTrue(buffer.offer(element));
+        }
+        Assertions.assertFalse(buffer.offer(4));
+
+        List<Integer> drained = new ArrayList<>();
+        Assertions.assertEquals(2, buffer.drain(drained::add, 2));
+        Assertions.assertTrue(buffer.offer(4));
+        Assertions.assertEquals(3, buffer.drain(drained::add, 10));
+        Assertions.assertEquals(Arrays.asList(0, 1, 2, 3, 4), drained);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new AuditRingBuffer<>(6));
+    }
+
+    @Test
+    @DisplayName("Test changes appended to the audit file with versions and actor")
+    public void testChangesWrittenToFile(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("audit").resolve("product-audit.jsonl");
+        ProductAuditLog auditLog = new ProductAuditLog(new AuditRingBuffer<>(16), "X-Actor", CLOCK);
+        AuditLogWriter writer = new AuditLogWriter(auditLog, file, 8, Duration.ofMillis(5));
+
+        // given a create made by a request naming its actor
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Actor", "alice");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        Product created = new Product(7, "Product", "Description", 5, 1);
+        auditLog.onProductChanged(ProductChangedEvent.saved(null, created));
+        RequestContextHolder.resetRequestAttributes();
+
+        // and an update and delete made without one
+        Product updated = new Product(7, "Product", "Description", 4, 2);
+        auditLog.onProductChanged(ProductChangedEvent.saved(created, updated));
+        auditLog.onProductChanged(ProductChangedEvent.deleted(updated));
+
+        // when the writer is closed
+        writer.close();
+
+        // then every event was written before closing
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        Assertions.assertEquals(3, lines.size());
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode create = mapper.readTree(lines.get(0));
+        Assertions.assertEquals("CREATED", create.get("type").asText());
+        Assertions.assertEquals(7, create.get("productId").asInt());
+        Assertions.assertTrue(create.get("oldVersion").isNull());
+        Assertions.assertEquals(1, create.get("newVersion").asInt());
+        Assertions.assertEquals("2026-10-19T10:15:30Z", create.get("timestamp").asText());
+        Assertions.assertEquals("alice", create.get("actor").asText());
+
+        JsonNode update = mapper.readTree(lines.get(1));
+        Assertions.assertEquals("UPDATED", update.get("type").asText());
+        Assertions.assertEquals(1, update.get("oldVersion").asInt());
+        Assertions.assertEquals(2, update.get("newVersion").asInt());
+        Assertions.assertFalse(update.has("actor"));
+
+        JsonNode delete = mapper.readTree(lines.get(2));
+        Assertions.assertEquals("DELETED", delete.get("type").asText());
+        Assertions.assertTrue(delete.get("newVersion").isNull());
+        Assertions.assertEquals(0, auditLog.getDropped());
+    }
+
+    @Test
+    @DisplayName("Test events dropped and counted when the buffer is full")
+    public void testDroppedWhenFull() {
+        ProductAuditLog auditLog = new ProductAuditLog(new AuditRingBuffer<>(2), "X-Actor", CLOCK);
+        for(int id = 1; id <= 5; id++) {
+            auditLog.onProductChanged(ProductChangedEvent.saved(null, new Product(id, "Product", "Description", 1, 1)));
+        }
+
+        Set<Integer> queued = new HashSet<>();
+        auditLog.drain(event -> queued.add(event.getProductId()), 10);
+        Assertions.assertEquals(2, queued.size());
+        Assertions.assertEquals(3, auditLog.getDropped());
+    }
+
+    @Test
+    @DisplayName("Test dropped events published as a metric")
+    public void testDroppedPublished() {
+        ProductAuditLog auditLog = new ProductAuditLog(new AuditRingBuffer<>(2), "X-Actor", CLOCK);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new ProductAuditMetrics(auditLog).bindTo(registry);
+
+        for(int id = 1; id <= 5; id++) {
+            auditLog.onProductChanged(ProductChangedEvent.saved(null, new Product(id, "Product", "Description", 1, 1)));
+        }
+
+        Assertions.assertEquals(3, registry.get("products.audit.dropped").functionCounter().count());
+    }
+}
@@ -0,0 +1,67 @@
+package edu.tdd.example.ut.bulkhead;
+
+import edu.tdd.example.bulkhead.Bulkhead;
+import edu.tdd.example.bulkhead.BulkheadFullException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class BulkheadTest {
+
+    @Test
+    @DisplayName("Test call executed inside bulkhead")
+    public void testCallExecuted() {
+        Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ofMillis(10));
+
+        Assertions.assertEquals("result", bulkhead.execute(() -> "result"));
+        Assertions.assertEquals(1, bulkhead.getAvailablePermits());
+    }
+
+    @Test
+    @DisplayName("Test permit released when call fails")
+    public void testPermitReleasedOnFailure() {
+        Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ofMillis(10));
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> bulkhead.run(() -> { throw new IllegalStateException(); }));
+        Assertions.assertEquals(1, bulkhead.getAvailablePermits());
+    }
+
+    @Test
+    @DisplayName("Test call rejected when bulkhead is full")
+    public void testCallRejectedWhenFull() throws InterruptedException {
+        Bulkhead bulkhead = new Bulkhead("test", 1, Duration.ofMillis(10));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            // given a call holding the only permit
+            executor.submit(() -> bulkhead.run(() -> {
+                holding.countDown();
+                awaitQuietly(release);
+            }));
+            holding.await(1, TimeUnit.SECONDS);
+
+            // then
+            Assertions.assertThrows(BulkheadFullException.class, () -> bulkhead.execute(() -> "rejected"));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,7 +2,7 @@ package edu.tdd.example.ut.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.tdd.example.domain.Product;
-import edu.tdd.example.ut.services.ProductService;
+import edu.tdd.example.services.ProductService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -25,6 +25,8 @@ import static org.hamcrest.Matchers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 @SpringBootTest(classes = edu.tdd.example.SpringTddExampleApplication.class)
 @AutoConfigureMockMvc
@@ -128,6 +130,34 @@ public class ProductControllerTest {
                 .andExpect(jsonPath("$.version",is(1)));
     }
 
+    @Test
+    @DisplayName("Test retried add new product saved once - POST /products with Idempotency-Key")
+    public void testRetriedAddNewProductSavedOnce() throws Exception {
+
+        // Prepare mock product
+        Product newProduct = new Product(3,"New product","New product description",8,null);
+        Product mockProduct = new Product(3,"New product","New product description",8,1);
+
+        // prepare mocked service method
+        doReturn(mockProduct).when(productService).save(ArgumentMatchers.any());
+
+        // perform the same POST Request twice
+        for(int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(MockMvcRequestBuilders.post("/products")
+                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                    .header("Idempotency-Key","retried-post")
+                    .content(new ObjectMapper().writeValueAsString(newProduct))
+            )
+                    // validate 201 CREATED is received both times
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string(HttpHeaders.LOCATION,"/products/3"))
+                    .andExpect(jsonPath("$.id",is(3)));
+        }
+
+        // validate the product was only saved once
+        verify(productService, times(1)).save(ArgumentMatchers.any());
+    }
+
     @Test
     @DisplayName("Test update existing - PUT /products/1")
     public void testUpdateExistingProduct() throws Exception {
@@ -137,7 +167,7 @@ public class ProductControllerTest {
         Product mockProduct = new Product(1,"Mock product","Mock product description",8,1);
 
         // prepare mocked service methods
-        doReturn(mockProduct).when(productService).findById(1);
+        doReturn(mockProduct).when(productService).findByIdOnPrimary(1);
         doReturn(mockProduct).when(productService).save(ArgumentMatchers.any());
 
         // perform PUT Request
@@ -171,7 +201,7 @@ public class ProductControllerTest {
         Product mockProduct = new Product(1,"Mock product","Mock product description",8,2);
 
         // prepare mocked service method
-        doReturn(mockProduct).when(productService).findById(1);
+        doReturn(mockProduct).when(productService).findByIdOnPrimary(1);
 
         // perform PUT Request
         mockMvc.perform(MockMvcRequestBuilders.put("/products/{id}",1)
@@ -191,7 +221,7 @@ public class ProductControllerTest {
         Product productToUpdate = new Product("Updated product","Updated product description",10);
 
         // prepare mocked service method
-        doReturn(null).when(productService).findById(1);
+        doReturn(null).when(productService).findByIdOnPrimary(1);
 
         // perform PUT Request
         mockMvc.perform(MockMvcRequestBuilders.put("/products/{id}",1)
@@ -211,7 +241,7 @@ public class ProductControllerTest {
         Product existingProduct = new Product(1,"Mock product","Mock product description",8,2);
 
         // prepare mocked service method
-        doReturn(existingProduct).when(productService).findById(1);
+        doReturn(existingProduct).when(productService).findByIdOnPrimary(1);
 
         // perform DELETE Request
         mockMvc.perform(MockMvcRequestBuilders.delete("/products/{id}",1))
@@ -224,7 +254,7 @@ public class ProductControllerTest {
     public void testFailureToDeleteANonExistingProduct() throws Exception {
 
         // prepare mocked service method
-        doReturn(null).when(productService).findById(1);
+        doReturn(null).when(productService).findByIdOnPrimary(1);
 
         // perform DELETE Request
         mockMvc.perform(MockMvcRequestBuilders.delete("/products/{id}",1))
@@ -0,0 +1,212 @@
+package edu.tdd.example.ut.hotproducts;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.tdd.example.bulkhead.Bulkhead;
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.hotproducts.FrequencySketch;
+import edu.tdd.example.hotproducts.HotProduct;
+import edu.tdd.example.hotproducts.HotProducts;
+import edu.tdd.example.hotproducts.PinnedProduct;
+import edu.tdd.example.invalidation.ProductInvalidation;
+import edu.tdd.example.repositories.ProductRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+
+public class HotProductsTest {
+
+    private final ProductRepository productRepository = Mockito.mock(ProductRepository.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<Product> stored = new ArrayList<>();
+
+    private HotProducts hotProducts;
+
+    @BeforeEach
+    public void setup() {
+        // the repository finds products 1 to 100 at their current version
+        for(int id = 1; id <= 100; id++) {
+            stored.add(new Product(id, "Product " + id, "Description", 10, 1));
+        }
+        doAnswer(invocation -> {
+            List<Product> found = new ArrayList<>();
+            for(Object id : invocation.<Iterable<?>>getArgument(0)) {
+                Product product = stored.get((Integer) id - 1);
+                if(product != null) {
+                    found.add(product.copy());
+                }
+            }
+            return found;
+        }).when(productRepository).findAllById(any());
+        hotProducts = hotProducts(Duration.ofMinutes(1));
+    }
+
+    @Test
+    @DisplayName("Test sketch estimates never undercount and age by halving")
+    public void testSketchEstimates() {
+        FrequencySketch sketch = new FrequencySketch(256, 2000);
+        Random random = new Random(42);
+        int[] reads = new int[1000];
+        for(int i = 0; i < 1999; i++) {
+            int id = random.nextInt(10) == 0 ? random.nextInt(1000) : random.nextInt(5);
+            reads[id]++;
+            sketch.increment(id);
+        }
+        for(int id = 0; id < reads.length; id++) {
+            Assertions.assertTrue(sketch.frequency(id) >= reads[id], "id " + id + " undercounted");
+        }
+        // skewed ids are estimated closely despite collisions with the long tail
+        Assertions.assertTrue(sketch.frequency(0) <= reads[0] + 20);
+
+        // the 2000th read halves all counters
+        int before = sketch.frequency(0);
+        sketch.increment(999);
+        Assertions.assertEquals(before / 2, sketch.frequency(0));
+    }
+
+    @Test
+    @DisplayName("Test top N read products pinned and ranked")
+    public void testTopProductsPinned() {
+        // given skewed reads: 5 above the minimum frequency, one below
+        read(1, 50);
+        read(2, 40);
+        read(3, 30);
+        read(4, 20);
+        read(5, 12);
+        read(6, 9);
+
+        // when
+        hotProducts.refresh();
+
+        // then only the top 3 are pinned, most read first
+        List<HotProduct> top = hotProducts.getTop();
+        Assertions.assertEquals(3, top.size());
+        Assertions.assertEquals(1, top.get(0).getId());
+        Assertions.assertEquals(3, top.get(2).getId());
+        Assertions.assertTrue(top.get(0).isPinned());
+        Assertions.assertEquals("Product 2", hotProducts.getPinned(2).getProduct().getName());
+        Assertions.assertNull(hotProducts.getPinned(4));
+        Assertions.assertNull(hotProducts.getPinned(6));
+        Mockito.verify(productRepository).findAllById(any());
+
+        // when product 4 becomes the most read
+        read(4, 60);
+        hotProducts.refresh();
+
+        // then it replaces the least read one
+        Assertions.assertNotNull(hotProducts.getPinned(4));
+        Assertions.assertNull(hotProducts.getPinned(3));
+    }
+
+    @Test
+    @DisplayName("Test pinned product dropped on a newer version and reloaded")
+    public void testPinnedProductRefreshedOnNewVersion() throws Exception {
+        read(1, 20);
+        hotProducts.refresh();
+        Assertions.assertEquals(1, hotProducts.getPinned(1).getProduct().getVersion());
+
+        // an invalidation of the pinned version keeps it
+        hotProducts.onInvalidation(new ProductInvalidation(1, 1));
+        Assertions.assertNotNull(hotProducts.getPinned(1));
+
+        // when version 2 is written
+        stored.set(0, new Product(1, "Renamed", "Description", 10, 2));
+        hotProducts.onInvalidation(new ProductInvalidation(1, 2));
+
+        // then reads go to the database until the next refresh loads version 2
+        Assertions.assertNull(hotProducts.getPinned(1));
+        hotProducts.refresh();
+        Assertions.assertEquals("Renamed", hotProducts.getPinned(1).getProduct().getName());
+        Assertions.assertEquals(2, hotProducts.getPinned(1).getProduct().getVersion());
+        // with its response body serialised again
+        Assertions.assertEquals(2, objectMapper.readTree(hotProducts.getPinned(1).getJson()).get("version").asInt());
+
+        // when deleted it is unpinned
+        hotProducts.onInvalidation(new ProductInvalidation(1, null));
+        Assertions.assertNull(hotProducts.getPinned(1));
+    }
+
+    @Test
+    @DisplayName("Test copy loaded before an invalidation is not pinned")
+    public void testStaleLoadNotPinned() {
+        read(1, 20);
+        // the product changes while the refresh query runs
+        doAnswer(invocation -> {
+            Product loaded = stored.get(0).copy();
+            hotProducts.onInvalidation(new ProductInvalidation(1, 2));
+            List<Product> found = new ArrayList<>();
+            found.add(loaded);
+            return found;
+        }).when(productRepository).findAllById(any());
+
+        hotProducts.refresh();
+
+        Assertions.assertNull(hotProducts.getPinned(1));
+        Assertions.assertFalse(hotProducts.getTop().get(0).isPinned());
+    }
+
+    @Test
+    @DisplayName("Test pinned products loaded again once past their max age")
+    public void testPinnedProductsRevalidated() throws Exception {
+        hotProducts = hotProducts(Duration.ZERO);
+        read(1, 20);
+        read(2, 20);
+        hotProducts.refresh();
+        PinnedProduct unchanged = hotProducts.getPinned(1);
+
+        // when product 2 is renamed without an invalidation reaching this instance
+        stored.set(1, new Product(2, "Renamed", "Description", 10, 2));
+        hotProducts.refresh();
+
+        // then both are loaded again in one query, the changed one serialised again
+        Mockito.verify(productRepository, times(2)).findAllById(any());
+        Assertions.assertEquals("Renamed", hotProducts.getPinned(2).getProduct().getName());
+        Assertions.assertEquals(2, objectMapper.readTree(hotProducts.getPinned(2).getJson()).get("version").asInt());
+        // and the unchanged one kept as it was
+        Assertions.assertSame(unchanged, hotProducts.getPinned(1));
+
+        // when product 1 is deleted the same way
+        stored.set(0, null);
+        hotProducts.refresh();
+
+        // then it is unpinned
+        Assertions.assertNull(hotProducts.getPinned(1));
+    }
+
+    @Test
+    @DisplayName("Test hot products of an earlier run pinned without reads")
+    public void testSeededProductsPinned() {
+        List<HotProduct> earlierRun = new ArrayList<>();
+        earlierRun.add(new HotProduct(7, 40, true));
+        earlierRun.add(new HotProduct(8, 5, false));
+
+        hotProducts.seed(earlierRun);
+
+        Assertions.assertEquals("Product 7", hotProducts.getPinned(7).getProduct().getName());
+        Assertions.assertNull(hotProducts.getPinned(8));
+        Assertions.assertEquals(1, hotProducts.getTop().size());
+    }
+
+    private HotProducts hotProducts(Duration maxAge) {
+        return new HotProducts(new FrequencySketch(1024, 100_000), productRepository,
+                new Bulkhead("scans", 1, Duration.ZERO), objectMapper, true, 3, 10, maxAge);
+    }
+
+    private void read(int id, int times) {
+        for(int i = 0; i < times; i++) {
+            hotProducts.record(id);
+        }
+    }
+}
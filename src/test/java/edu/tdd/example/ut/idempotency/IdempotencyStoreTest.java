@@ -0,0 +1,197 @@
+package edu.tdd.example.ut.idempotency;
+
+import edu.tdd.example.idempotency.IdempotencyKeyReusedException;
+import edu.tdd.example.idempotency.IdempotencyStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IdempotencyStoreTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private IdempotencyStore store(int maxEntries, Clock clock) {
+        return new IdempotencyStore(maxEntries, Duration.ofMinutes(1), Duration.ofSeconds(5), clock);
+    }
+
+    private ResponseEntity<?> created() {
+        return ResponseEntity.status(HttpStatus.CREATED).body(calls.incrementAndGet());
+    }
+
+    @Test
+    @DisplayName("Test repeated key replays stored response")
+    public void testRepeatedKeyReplaysResponse() {
+        IdempotencyStore store = store(10, Clock.systemUTC());
+
+        ResponseEntity<?> first = store.execute("key", "request", this::created);
+        ResponseEntity<?> second = store.execute("key", "request", this::created);
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Test key reused with a different request rejected")
+    public void testKeyReusedWithDifferentRequest() {
+        IdempotencyStore store = store(10, Clock.systemUTC());
+        store.execute("key", "request", this::created);
+
+        Assertions.assertThrows(IdempotencyKeyReusedException.class,
+                () -> store.execute("key", "other request", this::created));
+    }
+
+    @Test
+    @DisplayName("Test failed request can be retried with its key")
+    public void testFailedRequestRetried() {
+        IdempotencyStore store = store(10, Clock.systemUTC());
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> store.execute("key", "request", () -> { throw new IllegalStateException(); }));
+        store.execute("key", "request", this::created);
+
+        Assertions.assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("Test expired and oldest entries evicted")
+    public void testEntriesEvicted() {
+        MutableClock clock = new MutableClock();
+        IdempotencyStore store = store(2, clock);
+
+        store.execute("first", "request", this::created);
+        store.execute("second", "request", this::created);
+        store.execute("third", "request", this::created);
+
+        // then the oldest key is forgotten
+        Assertions.assertEquals(2, store.size());
+        store.execute("first", "request", this::created);
+        Assertions.assertEquals(4, calls.get());
+
+        // when the ttl passes
+        clock.advance(Duration.ofMinutes(2));
+        store.execute("second", "request", this::created);
+
+        Assertions.assertEquals(5, calls.get());
+        Assertions.assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("Test running entry not evicted beyond the maximum")
+    public void testRunningEntryNotEvicted() throws Exception {
+        IdempotencyStore store = store(1, Clock.systemUTC());
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<ResponseEntity<?>> first = executor.submit(() -> store.execute("running", "request", () -> {
+                running.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return created();
+            }));
+            running.await(5, TimeUnit.SECONDS);
+
+            // when another key pushes the store beyond its maximum
+            store.execute("other", "request", this::created);
+
+            Future<ResponseEntity<?>> retry = executor.submit(() -> store.execute("running", "request", this::created));
+            release.countDown();
+
+            // then the retry waits for the running request instead of running again
+            Assertions.assertSame(first.get(5, TimeUnit.SECONDS), retry.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(2, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Test forgotten entries do not count against the maximum")
+    public void testForgottenEntriesNotCounted() {
+        IdempotencyStore store = store(2, Clock.systemUTC());
+
+        store.execute("kept", "request", this::created);
+        store.execute("failed", "request", () -> ResponseEntity.badRequest().build());
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> store.execute("thrown", "request", () -> { throw new IllegalStateException(); }));
+        store.execute("second", "request", this::created);
+
+        // then both successful keys are still stored
+        Assertions.assertEquals(2, store.size());
+        store.execute("kept", "request", this::created);
+        Assertions.assertEquals(2, calls.get());
+    }
+
+    @Test
+    @DisplayName("Test concurrent duplicates wait for the first request")
+    public void testConcurrentDuplicatesWait() throws Exception {
+        IdempotencyStore store = store(10, Clock.systemUTC());
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            Future<ResponseEntity<?>> first = executor.submit(() -> store.execute("key", "request", () -> {
+                running.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return created();
+            }));
+            running.await(5, TimeUnit.SECONDS);
+
+            Future<ResponseEntity<?>> duplicate = executor.submit(() -> store.execute("key", "request", this::created));
+            Thread.sleep(50);
+            Assertions.assertFalse(duplicate.isDone(), "duplicate should wait for the first request");
+
+            release.countDown();
+            Assertions.assertSame(first.get(5, TimeUnit.SECONDS), duplicate.get(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(1, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package edu.tdd.example.ut.invalidation;
+
+import edu.tdd.example.invalidation.InJvmInvalidationBus;
+import edu.tdd.example.invalidation.InJvmInvalidationHub;
+import edu.tdd.example.invalidation.InvalidationConfiguration;
+import edu.tdd.example.invalidation.MulticastInvalidationBus;
+import edu.tdd.example.invalidation.ProductInvalidation;
+import edu.tdd.example.invalidation.ProductInvalidationBus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class ProductInvalidationBusTest {
+
+    @Test
+    @DisplayName("Test in-JVM invalidation reaches every instance once")
+    public void testInJvmBusDeliversToAllInstances() {
+        InJvmInvalidationHub hub = new InJvmInvalidationHub();
+        List<ProductInvalidation> first = new CopyOnWriteArrayList<>();
+        List<ProductInvalidation> second = new CopyOnWriteArrayList<>();
+        try(InJvmInvalidationBus publisher = new InJvmInvalidationBus(hub);
+            InJvmInvalidationBus peer = new InJvmInvalidationBus(hub)) {
+            publisher.subscribe(first::add);
+            peer.subscribe(second::add);
+
+            publisher.publish(new ProductInvalidation(1, 2));
+            publisher.publish(new ProductInvalidation(1, null));
+        }
+
+        Assertions.assertEquals(2, first.size());
+        Assertions.assertEquals(first, second);
+        Assertions.assertTrue(second.get(1).isDeleted());
+    }
+
+    @Test
+    @DisplayName("Test closed in-JVM bus receives nothing")
+    public void testClosedInJvmBusLeavesHub() {
+        InJvmInvalidationHub hub = new InJvmInvalidationHub();
+        List<ProductInvalidation> received = new CopyOnWriteArrayList<>();
+        try(InJvmInvalidationBus publisher = new InJvmInvalidationBus(hub)) {
+            InJvmInvalidationBus peer = new InJvmInvalidationBus(hub);
+            peer.subscribe(received::add);
+            peer.close();
+
+            publisher.publish(new ProductInvalidation(1, 2));
+        }
+
+        Assertions.assertTrue(received.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Test application contexts get their own in-JVM hub unless one is shared")
+    public void testInJvmHubPerContext() {
+        List<ProductInvalidation> received = new CopyOnWriteArrayList<>();
+        ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+                .withUserConfiguration(InvalidationConfiguration.class);
+
+        contextRunner.run(first -> contextRunner.run(second -> {
+            second.getBean(ProductInvalidationBus.class).subscribe(received::add);
+            first.getBean(ProductInvalidationBus.class).publish(new ProductInvalidation(1, 2));
+        }));
+        Assertions.assertTrue(received.isEmpty());
+
+        // a hub registered in several contexts connects them
+        InJvmInvalidationHub hub = new InJvmInvalidationHub();
+        ApplicationContextRunner sharingRunner = contextRunner.withBean(InJvmInvalidationHub.class, () -> hub);
+        sharingRunner.run(first -> sharingRunner.run(second -> {
+            second.getBean(ProductInvalidationBus.class).subscribe(received::add);
+            first.getBean(ProductInvalidationBus.class).publish(new ProductInvalidation(1, 2));
+        }));
+        Assertions.assertEquals(1, received.size());
+    }
+
+    @Test
+    @DisplayName("Test multicast invalidation reaches the peer, not the sender twice")
+    public void testMulticastBusDeliversToPeer() throws Exception {
+        InetSocketAddress group = new InetSocketAddress(InetAddress.getByName("239.255.27.99"), 44699);
+        NetworkInterface loopback = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress());
+        BlockingQueue<ProductInvalidation> sent = new LinkedBlockingQueue<>();
+        BlockingQueue<ProductInvalidation> received = new LinkedBlockingQueue<>();
+
+        try(MulticastInvalidationBus publisher = multicastBus(group, loopback);
+            MulticastInvalidationBus peer = multicastBus(group, loopback)) {
+            publisher.subscribe(sent::add);
+            peer.subscribe(received::add);
+
+            publisher.publish(new ProductInvalidation(7, 3));
+            ProductInvalidation invalidation = received.poll(5, TimeUnit.SECONDS);
+            Assumptions.assumeTrue(invalidation != null, "multicast is not routed on the loopback interface");
+            publisher.publish(new ProductInvalidation(7, null));
+
+            Assertions.assertEquals(new ProductInvalidation(7, 3), invalidation);
+            Assertions.assertEquals(new ProductInvalidation(7, null), received.poll(5, TimeUnit.SECONDS));
+            Assertions.assertEquals(2, sent.size());
+        }
+    }
+
+    private static MulticastInvalidationBus multicastBus(InetSocketAddress group, NetworkInterface networkInterface) {
+        try {
+            return new MulticastInvalidationBus(group, networkInterface, 0);
+        } catch(IOException e) {
+            Assumptions.assumeTrue(false, "multicast is not available: " + e);
+            return null;
+        }
+    }
+}
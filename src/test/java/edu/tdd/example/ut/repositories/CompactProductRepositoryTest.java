@@ -0,0 +1,217 @@
+package edu.tdd.example.ut.repositories;
+
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.repositories.QuantityCount;
+import edu.tdd.example.repositories.inmemory.CompactProductRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class CompactProductRepositoryTest {
+
+    private CompactProductRepository productRepository;
+
+    @BeforeEach
+    public void setup() {
+        productRepository = new CompactProductRepository(4);
+
+        // given products stored out of id order
+        for(int id : new int[]{25, 3, 14, 1, 12, 21}) {
+            productRepository.save(new Product(id, "Product " + id, "Description", id, 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Test products read back field by field")
+    public void testProductsReadBack() {
+        Assertions.assertEquals(new Product(14, "Product 14", "Description", 14, 1), productRepository.findProductById(14));
+        Assertions.assertNull(productRepository.findProductById(2));
+        Assertions.assertTrue(productRepository.existsById(21));
+        Assertions.assertFalse(productRepository.findById(22).isPresent());
+
+        productRepository.save(new Product(-7, null, "Négatif ✓", null, null));
+        Assertions.assertEquals(new Product(-7, null, "Négatif ✓", null, null), productRepository.findProductById(-7));
+    }
+
+    @Test
+    @DisplayName("Test find all sorted by id")
+    public void testFindAllSortedById() {
+        List<Integer> ids = new ArrayList<>();
+        productRepository.findAll().forEach(product -> ids.add(product.getId()));
+
+        Assertions.assertEquals(Arrays.asList(1, 3, 12, 14, 21, 25), ids);
+        Assertions.assertEquals(6L, productRepository.count());
+
+        List<Integer> found = new ArrayList<>();
+        productRepository.findAllById(Arrays.asList(21, 2, 3)).forEach(product -> found.add(product.getId()));
+        Assertions.assertEquals(Arrays.asList(3, 21), found);
+    }
+
+    @Test
+    @DisplayName("Test product updated in place and deleted")
+    public void testProductUpdatedAndDeleted() {
+        productRepository.save(new Product(12, "Updated", "Description", 80, 2));
+
+        Product updatedProduct = productRepository.findProductById(12);
+        Assertions.assertEquals("Updated", updatedProduct.getName());
+        Assertions.assertEquals(2, updatedProduct.getVersion());
+        Assertions.assertEquals(6L, productRepository.count());
+
+        productRepository.deleteById(12);
+        Assertions.assertFalse(productRepository.existsById(12));
+        Assertions.assertEquals(5L, productRepository.count());
+        Assertions.assertThrows(EmptyResultDataAccessException.class, () -> productRepository.deleteById(12));
+
+        productRepository.deleteAll();
+        Assertions.assertEquals(0L, productRepository.count());
+        Assertions.assertNull(productRepository.findProductById(1));
+    }
+
+    @Test
+    @DisplayName("Test quantity decremented only when in stock")
+    public void testQuantityDecremented() {
+        Assertions.assertEquals(1, productRepository.decrementQuantity(14, 10));
+        Assertions.assertEquals(0, productRepository.decrementQuantity(14, 5));
+        Assertions.assertEquals(0, productRepository.decrementQuantity(2, 1));
+
+        Product product = productRepository.findProductById(14);
+        Assertions.assertEquals(4, product.getQuantity());
+        Assertions.assertEquals(2, product.getVersion());
+    }
+
+    @Test
+    @DisplayName("Test products counted by quantity")
+    public void testCountByQuantity() {
+        productRepository.save(new Product(30, "Product 30", "Description", 3, 1));
+
+        Map<Integer, Long> counts = new HashMap<>();
+        for(QuantityCount count : productRepository.countByQuantity()) {
+            counts.put(count.getQuantity(), count.getProducts());
+        }
+        Assertions.assertEquals(2L, counts.get(3));
+        Assertions.assertEquals(1L, counts.get(25));
+        Assertions.assertEquals(6, counts.size());
+    }
+
+    @Test
+    @DisplayName("Test shared strings stored once")
+    public void testStringsInterned() {
+        long bytes = productRepository.getStringBytes();
+        for(int id = 100; id < 200; id++) {
+            productRepository.save(new Product(id, "Product 1", "Description", 1, 1));
+        }
+        Assertions.assertEquals(bytes, productRepository.getStringBytes());
+        Assertions.assertEquals("Product 1", productRepository.findProductById(150).getName());
+    }
+
+    @Test
+    @DisplayName("Test strings of renamed and deleted products compacted away")
+    public void testReplacedStringsCompacted() {
+        for(int update = 0; update < 10_000; update++) {
+            productRepository.save(new Product(1, "Renamed product " + update, "Description " + update, 1, update));
+            productRepository.save(new Product(1000 + update, "Deleted product", "Deleted description " + update, 1, 1));
+            productRepository.deleteById(1000 + update);
+        }
+
+        // the arena holds the live strings with bounded garbage, not all 30000 written
+        Assertions.assertTrue(productRepository.getStringBytes() < 2048, productRepository.getStringBytes() + " bytes");
+        Assertions.assertEquals("Renamed product 9999", productRepository.findProductById(1).getName());
+        Assertions.assertEquals("Description 9999", productRepository.findProductById(1).getDescription());
+        Assertions.assertEquals("Product 25", productRepository.findProductById(25).getName());
+        Assertions.assertEquals(6, productRepository.count());
+    }
+
+    @Test
+    @DisplayName("Test random inserts, updates and deletes match a hash map")
+    public void testRandomOperationsMatchHashMap() {
+        productRepository.deleteAll();
+        Map<Integer, Product> expected = new HashMap<>();
+        Random random = new Random(7);
+        for(int operation = 0; operation < 50_000; operation++) {
+            // few ids, so the index sees many collisions and deletes shift entries back
+            int id = random.nextInt(2000) * 1024;
+            if(random.nextInt(3) == 0) {
+                productRepository.delete(new Product(id, null, null, null, null));
+                expected.remove(id);
+            } else {
+                Product product = new Product(id, "Product " + random.nextInt(500), "Description", random.nextInt(100), operation);
+                productRepository.save(product);
+                expected.put(id, product.copy());
+            }
+        }
+
+        Assertions.assertEquals(expected.size(), productRepository.count());
+        for(int id = 0; id < 2000 * 1024; id += 1024) {
+            Assertions.assertEquals(expected.get(id), productRepository.findProductById(id));
+        }
+    }
+
+    @Test
+    @DisplayName("Test concurrent point reads never see a torn product")
+    public void testConcurrentReadsConsistent() throws Exception {
+        productRepository.deleteAll();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> readers = new ArrayList<>();
+        for(int reader = 0; reader < 3; reader++) {
+            readers.add(executor.submit(() -> {
+                Random random = new Random();
+                int reads = 0;
+                while(writing.get()) {
+                    Product product = productRepository.findProductById(1 + random.nextInt(1000));
+                    if(product != null) {
+                        // every write keeps name, quantity and version in step
+                        Assertions.assertEquals("Product " + product.getVersion(), product.getName());
+                        Assertions.assertEquals(product.getVersion(), product.getQuantity());
+                        reads++;
+                    }
+                }
+                return reads;
+            }));
+        }
+
+        // when a writer keeps growing, updating and deleting products
+        for(int version = 1; version <= 20; version++) {
+            for(int id = 1; id <= 1000; id++) {
+                productRepository.save(new Product(id, "Product " + version, "Description " + version, version, version));
+            }
+            for(int id = version; id <= 1000; id += 20) {
+                productRepository.deleteById(id);
+            }
+        }
+        writing.set(false);
+
+        for(Future<Integer> reader : readers) {
+            Assertions.assertTrue(reader.get(10, TimeUnit.SECONDS) > 0);
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test fixture loaded from a JSON array")
+    public void testFixtureLoaded() throws Exception {
+        productRepository.deleteAll();
+        try(InputStream json = new FileInputStream(Paths.get("src", "test", "resources", "products.json").toFile())) {
+            Assertions.assertEquals(2, productRepository.load(json));
+        }
+        Assertions.assertEquals("Second Product", productRepository.findProductById(2).getName());
+        Assertions.assertEquals(8, productRepository.findProductById(1).getQuantity());
+    }
+}
@@ -2,6 +2,7 @@ package edu.tdd.example.ut.repositories;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.tdd.example.domain.Product;
+import edu.tdd.example.repositories.ProductRepository;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -112,4 +113,21 @@ public class ProductRepositoryTests {
         // then
         Assertions.assertEquals(1L,productRepository.count());
     }
+
+    @Test
+    @DisplayName("Test quantity decremented only when in stock")
+    public void testQuantityDecrementedWhenInStock() {
+        // given product 1 with quantity 8
+
+        // when
+        int decremented = productRepository.decrementQuantity(1, 8);
+        int oversold = productRepository.decrementQuantity(1, 1);
+
+        // then
+        Assertions.assertEquals(1, decremented);
+        Assertions.assertEquals(0, oversold);
+        Product product = productRepository.findProductById(1);
+        Assertions.assertEquals(0, product.getQuantity());
+        Assertions.assertEquals(2, product.getVersion());
+    }
 }
@@ -0,0 +1,113 @@
+package edu.tdd.example.ut.repositories;
+
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.repositories.sharding.HashShardRouter;
+import edu.tdd.example.repositories.sharding.ProductShard;
+import edu.tdd.example.repositories.sharding.RangeShardRouter;
+import edu.tdd.example.repositories.sharding.ShardedProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class ShardedProductRepositoryTest {
+
+    private static final int SHARDS = 3;
+
+    private final List<ProductShard> shards = new ArrayList<>();
+
+    private ExecutorService executor;
+
+    private ShardedProductRepository productRepository;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newFixedThreadPool(SHARDS);
+        for(int shard = 0; shard < SHARDS; shard++) {
+            shards.add(new ProductShard(new DriverManagerDataSource(
+                    "jdbc:h2:mem:sharded-repository-test-" + shard + ";DB_CLOSE_DELAY=-1", "sa", "")));
+        }
+        productRepository = new ShardedProductRepository(shards, new RangeShardRouter(SHARDS, 10), executor);
+
+        // given products spread over all three shards
+        for(int id : new int[]{25, 3, 14, 1, 12, 21}) {
+            productRepository.save(new Product(id, "Product " + id, "Description", id, 1));
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        productRepository.deleteAll();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("Test point operations routed to the owning shard only")
+    public void testPointOperationsRoutedToOwningShard() {
+        Assertions.assertEquals("Product 14", productRepository.findProductById(14).getName());
+        Assertions.assertEquals("Product 14", shards.get(1).findById(14).getName());
+        Assertions.assertNull(shards.get(0).findById(14));
+        Assertions.assertNull(shards.get(2).findById(14));
+    }
+
+    @Test
+    @DisplayName("Test find all merges shards sorted by id")
+    public void testFindAllMergedById() {
+        List<Integer> ids = new ArrayList<>();
+        productRepository.findAll().forEach(product -> ids.add(product.getId()));
+
+        Assertions.assertEquals(java.util.Arrays.asList(1, 3, 12, 14, 21, 25), ids);
+        Assertions.assertEquals(6L, productRepository.count());
+    }
+
+    @Test
+    @DisplayName("Test product updated in place")
+    public void testProductUpdated() {
+        productRepository.save(new Product(12, "Updated", "Description", 80, 2));
+
+        Product updatedProduct = productRepository.findProductById(12);
+        Assertions.assertEquals("Updated", updatedProduct.getName());
+        Assertions.assertEquals(2, updatedProduct.getVersion());
+        Assertions.assertEquals(6L, productRepository.count());
+    }
+
+    @Test
+    @DisplayName("Test quantity decremented on its shard only when in stock")
+    public void testQuantityDecremented() {
+        Assertions.assertEquals(1, productRepository.decrementQuantity(14, 10));
+        Assertions.assertEquals(0, productRepository.decrementQuantity(14, 5));
+
+        Product product = shards.get(1).findById(14);
+        Assertions.assertEquals(4, product.getQuantity());
+        Assertions.assertEquals(2, product.getVersion());
+    }
+
+    @Test
+    @DisplayName("Test product deleted from its shard")
+    public void testProductDeleted() {
+        productRepository.deleteById(21);
+
+        Assertions.assertFalse(productRepository.existsById(21));
+        Assertions.assertEquals(5L, productRepository.count());
+    }
+
+    @Test
+    @DisplayName("Test hash routing stays within the shard count")
+    public void testHashRoutingWithinShards() {
+        HashShardRouter router = new HashShardRouter(SHARDS);
+        int[] hits = new int[SHARDS];
+        for(int id = -1000; id < 1000; id++) {
+            hits[router.shardFor(id)]++;
+        }
+        for(int shard = 0; shard < SHARDS; shard++) {
+            Assertions.assertTrue(hits[shard] > 500, "shard " + shard + " got " + hits[shard] + " ids");
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package edu.tdd.example.ut.reservations;
+
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.domain.Reservation;
+import edu.tdd.example.events.ProductChangedEvent;
+import edu.tdd.example.invalidation.ProductInvalidation;
+import edu.tdd.example.reservations.InsufficientStockException;
+import edu.tdd.example.reservations.ReservationNotFoundException;
+import edu.tdd.example.reservations.ReservationService;
+import edu.tdd.example.services.ProductService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class ReservationServiceTest {
+
+    private final ProductService productService = Mockito.mock(ProductService.class);
+
+    private final MutableClock clock = new MutableClock();
+
+    private final ExecutorService committers = Executors.newCachedThreadPool();
+
+    /**
+     * Product 1 as stored in the database
+     */
+    private volatile Product stored;
+
+    private ReservationService reservationService;
+
+    @BeforeEach
+    public void setup() {
+        // given product 1 with 100 items in stock
+        stored = new Product(1, "Product", "Description", 100, 1);
+        doAnswer(invocation -> stored).when(productService).findByIdOnPrimary(1);
+        // the guarded update of the database
+        doAnswer(invocation -> {
+            int quantity = invocation.getArgument(1);
+            synchronized(this) {
+                if(stored == null || stored.getQuantity() < quantity) {
+                    return null;
+                }
+                stored = new Product(1, "Product", "Description", stored.getQuantity() - quantity, stored.getVersion() + 1);
+                return stored;
+            }
+        }).when(productService).decrementQuantity(eq(1), anyInt());
+        reservationService = new ReservationService(productService, Duration.ofMinutes(10), clock);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        committers.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Test concurrent reservations never oversell")
+    public void testConcurrentReservationsNeverOversell() throws InterruptedException {
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for(int i = 0; i < 1000; i++) {
+            executor.submit(() -> {
+                try {
+                    reservationService.reserve(1, 1);
+                    reserved.incrementAndGet();
+                } catch(InsufficientStockException e) {
+                    rejected.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(100, reserved.get());
+        Assertions.assertEquals(900, rejected.get());
+        Assertions.assertEquals(0, reservationService.getAvailable(1));
+    }
+
+    @Test
+    @DisplayName("Test commits confirmed once written in one decrement per flush")
+    public void testCommitsGroupCommitted() throws Exception {
+        List<Future<Reservation>> commits = new ArrayList<>();
+        for(int i = 0; i < 5; i++) {
+            commits.add(commit(reservationService.reserve(1, 2)));
+        }
+        awaitPendingCommits(5);
+
+        // then no commit is confirmed before it is written
+        commits.forEach(commit -> Assertions.assertFalse(commit.isDone()));
+
+        // when
+        reservationService.flush();
+
+        for(Future<Reservation> commit : commits) {
+            Assertions.assertNotNull(commit.get(5, TimeUnit.SECONDS));
+        }
+        verify(productService, times(1)).decrementQuantity(eq(1), anyInt());
+        verify(productService).decrementQuantity(1, 10);
+        Assertions.assertEquals(90, stored.getQuantity());
+        Assertions.assertEquals(90, reservationService.getAvailable(1));
+    }
+
+    @Test
+    @DisplayName("Test commit rejected when another instance sold the stock")
+    public void testCommitRejectedWhenStockSoldElsewhere() throws Exception {
+        Reservation first = reservationService.reserve(1, 10);
+        Reservation second = reservationService.reserve(1, 4);
+
+        // given another instance sold most of the stock meanwhile
+        stored = new Product(1, "Product", "Description", 5, 2);
+        Future<Reservation> rejected = commit(first);
+        Future<Reservation> accepted = commit(second);
+        awaitPendingCommits(2);
+        reservationService.flush();
+
+        // then the commit the database cannot take fails instead of being lost
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(exception.getCause() instanceof InsufficientStockException);
+        Assertions.assertNotNull(accepted.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(1, stored.getQuantity());
+        // and the ledger follows the stored stock
+        Assertions.assertEquals(1, reservationService.getAvailable(1));
+    }
+
+    @Test
+    @DisplayName("Test released and expired reservations give stock back")
+    public void testReleasedAndExpiredStockGivenBack() {
+        Reservation released = reservationService.reserve(1, 30);
+        reservationService.reserve(1, 20);
+
+        reservationService.release(1, released.getId());
+        clock.advance(Duration.ofMinutes(11));
+        reservationService.expire();
+        reservationService.flush();
+
+        Assertions.assertEquals(100, reservationService.getAvailable(1));
+        verify(productService, never()).decrementQuantity(eq(1), anyInt());
+        Assertions.assertThrows(ReservationNotFoundException.class, () -> reservationService.commit(1, released.getId()));
+    }
+
+    @Test
+    @DisplayName("Test restock through an update is reservable, whatever the order changes arrive in")
+    public void testRestockFollowed() {
+        reservationService.reserve(1, 100);
+        Product before = new Product(1, "Product", "Description", 100, 1);
+        Product after = new Product(1, "Product", "Description", 150, 2);
+
+        reservationService.onProductChanged(ProductChangedEvent.saved(before, after));
+        // a late or repeated change does not count twice
+        reservationService.onProductChanged(ProductChangedEvent.saved(before, after));
+        reservationService.onProductChanged(ProductChangedEvent.saved(null, before));
+
+        Assertions.assertEquals(50, reservationService.getAvailable(1));
+        Assertions.assertThrows(InsufficientStockException.class, () -> reservationService.reserve(1, 51));
+    }
+
+    @Test
+    @DisplayName("Test stock written by another instance read again")
+    public void testRemoteWriteReadAgain() {
+        reservationService.reserve(1, 10);
+
+        // when another instance restocks
+        stored = new Product(1, "Product", "Description", 200, 2);
+        reservationService.onInvalidation(new ProductInvalidation(1, 2));
+
+        // then the next reservation sees it
+        reservationService.reserve(1, 150);
+        Assertions.assertEquals(40, reservationService.getAvailable(1));
+    }
+
+    @Test
+    @DisplayName("Test ledger of a deleted product forgotten and its id reusable")
+    public void testDeletedProductLedgerForgotten() throws Exception {
+        Reservation held = reservationService.reserve(1, 2);
+        Future<Reservation> waiting = commit(reservationService.reserve(1, 3));
+        awaitPendingCommits(1);
+
+        // when
+        reservationService.onProductChanged(ProductChangedEvent.deleted(stored));
+        stored = null;
+
+        // then neither the waiting nor a later commit is sold
+        ExecutionException exception = Assertions.assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(exception.getCause() instanceof ReservationNotFoundException);
+        Assertions.assertThrows(ReservationNotFoundException.class, () -> reservationService.commit(1, held.getId()));
+        Assertions.assertNull(reservationService.getAvailable(1));
+
+        // when the id is reused
+        stored = new Product(1, "New product", "Description", 7, 1);
+        reservationService.reserve(1, 7);
+        Assertions.assertEquals(0, reservationService.getAvailable(1));
+    }
+
+    @Test
+    @DisplayName("Test reservation of a missing product")
+    public void testReservationOfMissingProduct() {
+        Assertions.assertNull(reservationService.reserve(100, 1));
+    }
+
+    private Future<Reservation> commit(Reservation reservation) {
+        return committers.submit(() -> reservationService.commit(reservation.getProductId(), reservation.getId()));
+    }
+
+    private void awaitPendingCommits(int commits) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while(reservationService.getPendingCommits(1) < commits) {
+            Assertions.assertTrue(System.nanoTime() < deadline, "commits should be queued for the next flush");
+            Thread.sleep(1);
+        }
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2020-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
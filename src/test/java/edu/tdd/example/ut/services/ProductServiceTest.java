@@ -1,7 +1,8 @@
 package edu.tdd.example.ut.services;
 
 import edu.tdd.example.domain.Product;
-import edu.tdd.example.ut.repositories.ProductRepository;
+import edu.tdd.example.repositories.ProductRepository;
+import edu.tdd.example.services.ProductService;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -127,6 +128,22 @@ public class ProductServiceTest {
         Assertions.assertEquals("New Product",updateProduct.getName());
     }
 
+    @Test
+    @DisplayName("Test saving over an existing product bumps its stored version")
+    public void testSaveOverExistingProductBumpsVersion(){
+
+        Product existingProduct = new Product(1,"Product","Product Description",8,3);
+        Product newProduct = new Product(1,"New Product","Product Description",10,null);
+
+        doReturn(existingProduct).when(productRepository).findProductById(1);
+        doReturn(newProduct).when(productRepository).save(newProduct);
+
+        Product savedProduct = productService.save(newProduct);
+
+        // versions never go back, caches compare them to drop stale copies
+        Assertions.assertEquals(4,savedProduct.getVersion());
+    }
+
     @Test
     @DisplayName("Test fail to update an existing product")
     public void testFailUpdatingProduct(){
@@ -0,0 +1,111 @@
+package edu.tdd.example.ut.services;
+
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.domain.ProductStats;
+import edu.tdd.example.events.ProductChangedEvent;
+import edu.tdd.example.repositories.QuantityCount;
+import edu.tdd.example.services.ProductService;
+import edu.tdd.example.services.ProductStatsProperties;
+import edu.tdd.example.services.ProductStatsService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.mockito.Mockito.*;
+
+public class ProductStatsServiceTest {
+
+    private ProductService productService;
+
+    private ProductStatsService productStatsService;
+
+    @BeforeEach
+    public void setup() {
+        productService = mock(ProductService.class);
+        productStatsService = new ProductStatsService(productService, new ProductStatsProperties());
+
+        // given 2 products out of stock, 3 with 8 and 1 with 250 in stock
+        doReturn(Arrays.asList(QuantityCount.of(0, 2), QuantityCount.of(8, 3), QuantityCount.of(250, 1)))
+                .when(productService).countByQuantity();
+    }
+
+    @Test
+    @DisplayName("Test stats computed from the stock distribution")
+    public void testStatsComputed() {
+        ProductStats stats = productStatsService.getStats();
+
+        Assertions.assertEquals(6, stats.getProducts());
+        Assertions.assertEquals(274, stats.getTotalQuantity());
+        Assertions.assertEquals(2, stats.getLowStock());
+        Assertions.assertEquals(2, stats.getOutOfStock());
+        Assertions.assertEquals(2, stats.getDistribution().get(0).getProducts());
+        Assertions.assertEquals(3, stats.getDistribution().get(1).getProducts());
+        Assertions.assertEquals(1, stats.getDistribution().get(3).getProducts());
+        Assertions.assertEquals(999, stats.getDistribution().get(3).getMax());
+        Assertions.assertNull(stats.getDistribution().get(4).getMax());
+    }
+
+    @Test
+    @DisplayName("Test stats maintained from changes without querying again")
+    public void testStatsUpdatedIncrementally() {
+        productStatsService.getStats();
+
+        // when one product restocked, one created and one deleted
+        productStatsService.onProductChanged(ProductChangedEvent.saved(product(1, 0), product(1, 20)));
+        productStatsService.onProductChanged(ProductChangedEvent.saved(null, product(7, 3)));
+        productStatsService.onProductChanged(ProductChangedEvent.deleted(product(2, 250)));
+
+        ProductStats stats = productStatsService.getStats();
+
+        // then
+        Assertions.assertEquals(6, stats.getProducts());
+        Assertions.assertEquals(47, stats.getTotalQuantity());
+        Assertions.assertEquals(2, stats.getLowStock());
+        Assertions.assertEquals(1, stats.getOutOfStock());
+        verify(productService, times(1)).countByQuantity();
+    }
+
+    @Test
+    @DisplayName("Test change published during a reload counted once")
+    public void testChangeDuringReloadCountedOnce() {
+        // the change is published while the query runs, which does not see it yet
+        doAnswer(invocation -> {
+            productStatsService.onProductChanged(ProductChangedEvent.saved(product(1, 0), product(1, 20)));
+            return Arrays.asList(QuantityCount.of(0, 2), QuantityCount.of(8, 3), QuantityCount.of(250, 1));
+        }).when(productService).countByQuantity();
+
+        ProductStats stats = productStatsService.getStats();
+
+        Assertions.assertEquals(294, stats.getTotalQuantity());
+        Assertions.assertEquals(1, stats.getOutOfStock());
+    }
+
+    @Test
+    @DisplayName("Test change published before a reload not counted again")
+    public void testChangeBeforeReloadNotCountedAgain() {
+        ProductStatsProperties properties = new ProductStatsProperties();
+        properties.setMaxAge(Duration.ZERO);
+        productStatsService = new ProductStatsService(productService, properties);
+        productStatsService.getStats();
+
+        // when a restock is published, then seen by the next reload
+        productStatsService.onProductChanged(ProductChangedEvent.saved(product(1, 0), product(1, 20)));
+        doReturn(Arrays.asList(QuantityCount.of(0, 1), QuantityCount.of(8, 3), QuantityCount.of(20, 1), QuantityCount.of(250, 1)))
+                .when(productService).countByQuantity();
+
+        ProductStats stats = productStatsService.getStats();
+
+        // then it is counted once
+        Assertions.assertEquals(294, stats.getTotalQuantity());
+        Assertions.assertEquals(1, stats.getOutOfStock());
+        verify(productService, times(2)).countByQuantity();
+    }
+
+    private static Product product(int id, int quantity) {
+        return new Product(id, "Product", "Description", quantity, 1);
+    }
+}
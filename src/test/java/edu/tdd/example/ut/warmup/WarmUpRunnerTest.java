@@ -0,0 +1,124 @@
+package edu.tdd.example.ut.warmup;
+
+import com.sun.net.httpserver.HttpServer;
+import edu.tdd.example.domain.Product;
+import edu.tdd.example.hotproducts.HotProduct;
+import edu.tdd.example.hotproducts.HotProducts;
+import edu.tdd.example.services.ProductService;
+import edu.tdd.example.warmup.HotProductsFile;
+import edu.tdd.example.warmup.WarmUpRunner;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class WarmUpRunnerTest {
+
+    private final HotProducts hotProducts = Mockito.mock(HotProducts.class);
+
+    private final ProductService productService = Mockito.mock(ProductService.class);
+
+    @Test
+    @DisplayName("Test hot products saved and loaded in rank order")
+    public void testHotProductsFileRoundTrip(@TempDir Path directory) throws Exception {
+        HotProductsFile file = new HotProductsFile(directory.resolve("warmup").resolve("hot-products.txt"));
+        Assertions.assertTrue(file.load().isEmpty());
+
+        file.save(Arrays.asList(new HotProduct(7, 900, true), new HotProduct(3, 120, false)));
+        // an idle run does not overwrite a busy one
+        file.save(Collections.emptyList());
+
+        List<HotProduct> loaded = file.load();
+        Assertions.assertEquals(Arrays.asList(new HotProduct(7, 900, false), new HotProduct(3, 120, false)), loaded);
+        Assertions.assertEquals(Arrays.asList("7 900", "3 120"),
+                Files.readAllLines(directory.resolve("warmup").resolve("hot-products.txt"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Test last run's hot products pinned before ready and saved on shutdown")
+    public void testHotProductsPreloadedAndSaved(@TempDir Path directory) throws Exception {
+        HotProductsFile file = new HotProductsFile(directory.resolve("hot-products.txt"));
+        List<HotProduct> lastRun = Collections.singletonList(new HotProduct(7, 900, false));
+        file.save(lastRun);
+
+        // given no web server to send warm-up requests to
+        WarmUpRunner runner = new WarmUpRunner(hotProducts, productService, file, () -> null, 100, 2, Duration.ofSeconds(5));
+
+        // when
+        runner.run(null);
+
+        // then the hot products are pinned from the file
+        verify(hotProducts).seed(lastRun);
+        verify(hotProducts, never()).clear();
+
+        // and the current ones replace them on shutdown
+        doReturn(Collections.singletonList(new HotProduct(9, 300, true))).when(hotProducts).getTop();
+        runner.destroy();
+        Assertions.assertEquals(Collections.singletonList(new HotProduct(9, 300, false)), file.load());
+    }
+
+    @Test
+    @DisplayName("Test unreachable server fails warm-up requests without failing startup")
+    public void testUnreachableServer() throws Exception {
+        WarmUpRunner runner = new WarmUpRunner(hotProducts, productService, null, () -> "http://localhost:1/products",
+                20, 2, Duration.ofSeconds(5));
+
+        runner.run(null);
+
+        // warm-up reads are forgotten and nothing is saved without a file
+        InOrder order = Mockito.inOrder(hotProducts);
+        order.verify(hotProducts).seed(Collections.emptyList());
+        order.verify(hotProducts).clear();
+        order.verify(hotProducts).seed(Collections.emptyList());
+        Mockito.clearInvocations(hotProducts);
+        runner.destroy();
+        verify(hotProducts, never()).getTop();
+    }
+
+    @Test
+    @DisplayName("Test warm-up requests read the last run's hot products and existing products")
+    public void testExistingProductsRequested(@TempDir Path directory) throws Exception {
+        HotProductsFile file = new HotProductsFile(directory.resolve("hot-products.txt"));
+        file.save(Collections.singletonList(new HotProduct(7, 900, false)));
+        doReturn(Arrays.asList(new Product(3, "Product", "Description", 1, 1),
+                new Product(7, "Product", "Description", 1, 1))).when(productService).findAll();
+
+        // given a server recording the requested paths
+        Set<String> paths = ConcurrentHashMap.newKeySet();
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            paths.add(exchange.getRequestURI().getPath());
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/products";
+            new WarmUpRunner(hotProducts, productService, file, () -> url, 60, 2, Duration.ofSeconds(5)).run(null);
+        } finally {
+            server.stop(0);
+        }
+
+        // then only products known to exist are read
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("/products/7", "/products/3", "/products/stats")), paths);
+    }
+}